@@ -0,0 +1,31 @@
+package fenrir;
+
+import fenrir.genetic.Individual;
+import fenrir.misc.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CrossoverBenchmark {
+    private Random rand;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rand = RandomSource.forTask("benchmark");
+    }
+
+    @Benchmark
+    public Set<Individual> crossover(ScheduleState state) {
+        Individual parent1 = state.population.get(rand.nextInt(state.population.size()));
+        Individual parent2 = state.population.get(rand.nextInt(state.population.size()));
+        return state.app.crossover(parent1, parent2, rand);
+    }
+}
@@ -0,0 +1,34 @@
+package fenrir;
+
+import fenrir.genetic.Fitness;
+import fenrir.genetic.Individual;
+import fenrir.genetic.Schedule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FitnessBenchmark {
+
+    @Benchmark
+    public Fitness cached(ScheduleState state) {
+        return state.population.get(0).getFitness(state.app.getPopulationProperties());
+    }
+
+    /**
+     * Fitness of an individual whose schedules all changed since the last evaluation.
+     */
+    @Benchmark
+    public Fitness recomputed(ScheduleState state) {
+        Individual individual = state.population.get(0);
+
+        for(Schedule s : individual.getScheduledExperiments().values())
+            s.setStartSlot(s.getStartSlot());
+
+        return individual.getFitness(state.app.getPopulationProperties());
+    }
+}
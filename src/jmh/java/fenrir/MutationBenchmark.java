@@ -0,0 +1,47 @@
+package fenrir;
+
+import fenrir.genetic.Individual;
+import fenrir.misc.RandomSource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutation operators, measured per mutation type on a fresh copy of an individual (including the traffic adjustment
+ * and the capacity ledger update).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MutationBenchmark {
+
+    // AdjustTraffic and AdjustTrafficRange are never selected by the GA
+    @Param({"MoveSchedule", "ShortenSchedule", "ExtendSchedule", "FlipUserGroup", "FlipUserGroupRange",
+            "AddUserGroup", "AddUserGroupRange", "RemoveUserGroup", "RemoveUserGroupRange"})
+    public MutationType mutationType;
+
+    private Random rand;
+
+    private Individual individual;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rand = RandomSource.forTask("benchmark");
+    }
+
+    @Setup(Level.Invocation)
+    public void copyIndividual(ScheduleState state) {
+        individual = state.app.cloneIndividual(state.population.get(rand.nextInt(state.population.size())));
+    }
+
+    @Benchmark
+    public Individual mutate(ScheduleState state) {
+        Experiment e = state.experiments.get(rand.nextInt(state.experiments.size()));
+        state.app.applyMutation(individual, e, mutationType, rand);
+        return individual;
+    }
+}
@@ -0,0 +1,24 @@
+package fenrir;
+
+import fenrir.genetic.Individual;
+import fenrir.misc.SampleGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creation of a start population. A single run takes long enough to be measured one shot at a time.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PopulationBenchmark {
+
+    @Benchmark
+    public List<Individual> createPopulation(ScheduleState state) {
+        return SampleGenerator.createPopulation(state.populationSize, state.experimentSet, state.app.getUserGroups(), state.app.getTrafficProfile());
+    }
+}
@@ -0,0 +1,53 @@
+package fenrir;
+
+import fenrir.genetic.Individual;
+import fenrir.misc.RandomSource;
+import fenrir.misc.SampleGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Shared fixture of the benchmarks: a population scheduling one of the shipped experiment sets on a shipped traffic
+ * profile. Paths are relative to the project directory, which is the working directory of ./gradlew jmh.
+ */
+@State(Scope.Benchmark)
+public class ScheduleState {
+    private static final long SEED = 42L;
+
+    @Param({"10", "25", "50"})
+    public int numExperiments;
+
+    @Param({"traffic_profiles/gitlab_12_months.csv"})
+    public String trafficProfile;
+
+    @Param({"10"})
+    public int populationSize;
+
+    App app;
+
+    Set<Experiment> experimentSet;
+
+    List<Experiment> experiments;
+
+    List<Individual> population;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RandomSource.setSeed(SEED);
+
+        app = new App();
+        app.initialize(trafficProfile);
+
+        experimentSet = App.readExperimentsFromJson("experiments/experiments_" + numExperiments + ".json");
+        if(experimentSet == null)
+            throw new IllegalStateException("Could not read experiments_" + numExperiments + ".json");
+
+        experiments = new ArrayList<>(experimentSet);
+        app.initializePopulationProperties(experimentSet);
+
+        population = SampleGenerator.createPopulation(populationSize, experimentSet, app.getUserGroups(), app.getTrafficProfile());
+    }
+}
@@ -0,0 +1,43 @@
+package fenrir;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import fenrir.genetic.Individual;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of a population, as done when saving and restarting schedules.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    private static final Type POPULATION_TYPE = new TypeToken<List<Individual>>(){}.getType();
+
+    private Gson gson;
+
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp(ScheduleState state) {
+        gson = App.getGson();
+        json = gson.toJson(state.population, POPULATION_TYPE);
+    }
+
+    @Benchmark
+    public String toJson(ScheduleState state) {
+        return gson.toJson(state.population, POPULATION_TYPE);
+    }
+
+    @Benchmark
+    public List<Individual> fromJson() {
+        return gson.fromJson(json, POPULATION_TYPE);
+    }
+}
@@ -0,0 +1,59 @@
+package fenrir;
+
+import fenrir.genetic.Individual;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidityBenchmark {
+
+    // resetting the schedules drops the capacity ledger, such that it is rebuilt by the next check
+    private static Individual withoutLedger(ScheduleState state) {
+        Individual individual = state.population.get(0);
+        individual.setScheduledExperiments(individual.getScheduledExperiments());
+        return individual;
+    }
+
+    @Benchmark
+    public boolean isValid(ScheduleState state) {
+        return withoutLedger(state).isValid(state.app.getTrafficProfile());
+    }
+
+    @Benchmark
+    public boolean nonInterruptedExperiments(ScheduleState state) {
+        return state.population.get(0).nonInterruptedExperiments();
+    }
+
+    @Benchmark
+    public boolean hasValidBusinessExperiments(ScheduleState state) {
+        return state.population.get(0).hasValidBusinessExperiments();
+    }
+
+    @Benchmark
+    public boolean experimentsConsumeEnoughTraffic(ScheduleState state) {
+        return state.population.get(0).experimentsConsumeEnoughTraffic(state.app.getTrafficProfile());
+    }
+
+    @Benchmark
+    public boolean consumeNotMoreThan100Percent(ScheduleState state) {
+        return withoutLedger(state).consumeNotMoreThan100Percent(state.app.getTrafficProfile());
+    }
+
+    /**
+     * Re-check after a single experiment changed, i.e., the delta path of the capacity ledger.
+     */
+    @Benchmark
+    public boolean consumeNotMoreThan100PercentAfterChange(ScheduleState state) {
+        Individual individual = state.population.get(0);
+        Experiment e = state.experiments.get(0);
+
+        individual.beforeScheduleChange(e);
+        individual.afterScheduleChange(e);
+        return individual.consumeNotMoreThan100Percent(state.app.getTrafficProfile());
+    }
+}
@@ -4,36 +4,49 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
-import com.google.gson.typeadapters.RuntimeTypeAdapterFactory;
 import fenrir.genetic.*;
+import fenrir.genetic.selection.ParentSelection;
+import fenrir.genetic.selection.SelectionType;
 import fenrir.misc.ConfigLoader;
 import fenrir.misc.ProfileGenerator;
+import fenrir.misc.RandomSource;
+import fenrir.misc.RunBudget;
 import fenrir.misc.SampleGenerator;
 
 import java.io.*;
 import java.math.BigInteger;
-import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class App implements ExperimentRunner{
-    private static final SecureRandom rand = new SecureRandom();
+    private static final int MAX_MUTATION_ATTEMPTS = 10;
 
-    private static final RuntimeTypeAdapterFactory<Experiment> typeFactory = RuntimeTypeAdapterFactory
-            .of(Experiment.class, "baseType")
-            .registerSubtype(Experiment.class)
-            .registerSubtype(GradualExperiment.class);
+    // experiments, individuals, and schedules are (de)serialized by streaming adapters instead of reflection; the
+    // instances are created once, since every Gson instance builds its adapters anew
+    private static final Gson compactGson = new GsonBuilder()
+            .registerTypeHierarchyAdapter(Experiment.class, new ExperimentTypeAdapter())
+            .registerTypeAdapter(Individual.class, new IndividualTypeAdapter())
+            .registerTypeAdapter(Schedule.class, new ScheduleTypeAdapter())
+            .enableComplexMapKeySerialization()
+            .create();
+    private static final Gson prettyGson = compactGson.newBuilder().setPrettyPrinting().create();
 
-    public static final GsonBuilder gsonBuilder = new GsonBuilder()
-            .setPrettyPrinting()
-            .registerTypeAdapterFactory(typeFactory)
-            .enableComplexMapKeySerialization();
+    // parse the input files, the daemon reads them from its cache instead
+    private final Function<String, TrafficProfile> profileReader;
+    private final Function<String, Set<Experiment>> experimentReader;
 
-    // Hour : [UserGroup : NumRequests]
-    private HashMap<Integer, HashMap<String, Integer>> trafficProfile;
+    // progress and results of runs, the daemon streams them to the client of a job
+    private final PrintStream console;
+
+    private TrafficProfile trafficProfile;
 
     private List<String> userGroups;
 
@@ -44,19 +57,43 @@ public class App implements ExperimentRunner{
     private AtomicLong mutationCount = new AtomicLong(0L);
     private AtomicLong crossoverCount = new AtomicLong(0L);
 
+    // bounds the current run, restarted by initialize
+    private RunBudget budget = new RunBudget(0, 0);
+    private Individual unsavedBest = null;
+    private float bestSoFarFitness = -1.0F;
+    private long lastBestSoFarSave = 0L;
+
+    // command line arguments of the current run and the checkpoint it resumes from, if any
+    private String[] arguments = new String[0];
+    private String resumePath = null;
+    private Checkpoint resumed = null;
+    private CheckpointWriter checkpoints = new CheckpointWriter(null, 0);
+
     public static void main(String[] args) {
         CLI cli = new CLI();
 
-        cli.parseArgs(args, new App());
+        try {
+            cli.parseArgs(args, new App());
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            System.exit(1);
+        }
     }
 
-    private App() {
+    App() {
+        this(ProfileGenerator::readTrafficProfile, App::readExperimentsFromJson, System.out);
+    }
+
+    App(Function<String, TrafficProfile> profileReader, Function<String, Set<Experiment>> experimentReader, PrintStream console) {
         ConfigLoader.load(Constants.class, "fenrir.properties");
+        this.profileReader = profileReader;
+        this.experimentReader = experimentReader;
+        this.console = console;
     }
 
 
     private void startGenetic(List<Individual> population, long startTime) {
-        System.out.println("population size: " + population.size());
+        console.println("population size: " + population.size());
 
         if(population == null || population.size() < Constants.POPULATION_SIZE)
             return;
@@ -64,87 +101,370 @@ public class App implements ExperimentRunner{
         Set<Experiment> experiments = population.get(0).getExperiments();
         App.saveExperimentsAsJson(experiments, Constants.EXPERIMENT_OUTPUT_PATH);
 
-        System.out.println("Start Population Size: " + population.size());
+        console.println("Start Population Size: " + population.size());
 
-        props = new PopulationProperties(trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
+        initializePopulationProperties(experiments);
+
+        int firstGeneration = 0;
+        try {
+            if(resumed != null) {
+                statsWriter = reopenStats(Constants.STATS_OUTPUT_PATH, resumed.getStatsOffset());
+                firstGeneration = resumed.getStep();
+            }else {
+                statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
+                statsWriter.println("Generation,DurationScore,UserGroupScore,StartScore,Total");
+            }
+        } catch (IOException e) {
+            console.println(e.getMessage());
+        }
+
+        Individual bestStart = getBest(population);
+        if(resumed == null)
+            statsWriter.println(bestStart.getFitness(props).toCSV(0));
+
+        List<Experiment> order = resumed != null ? resumed.getExperiments() : new ArrayList<>(experiments);
+        List<Individual> result = evolve(order, population, firstGeneration, Constants.NUM_GENERATIONS, Constants.TARGET_FITNESS, Constants.POPULATION_SIZE);
+
+        Individual best = getBest(result);
+        long endTime = System.currentTimeMillis();
+
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
+        saveStats(best, endTime - startTime, "genetic", Constants.NUM_GENERATIONS);
+
+        // a resumed run starts from a later generation, which must not replace the start population
+        if(resumed == null)
+            App.savePopulationAsJson(population, Constants.POPULATION_OUTPUT_PATH);
+        statsWriter.close();
+        checkpoints.finish();
+    }
+
+    private void startIslandGenetic(List<List<Individual>> islands, long startTime) {
+        List<Individual> population = flatten(islands);
+        console.println("Start Population Size: " + population.size() + " (" + islands.size() + " islands)");
+
+        Set<Experiment> experiments = population.get(0).getExperiments();
+        App.saveExperimentsAsJson(experiments, Constants.EXPERIMENT_OUTPUT_PATH);
+
+        initializePopulationProperties(experiments);
 
         try {
             statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
             statsWriter.println("Generation,DurationScore,UserGroupScore,StartScore,Total");
         } catch (FileNotFoundException e) {
-            System.out.println(e.getMessage());
+            console.println(e.getMessage());
         }
 
         Individual bestStart = getBest(population);
         statsWriter.println(bestStart.getFitness(props).toCSV(0));
 
-        List<Individual> result = evolve(new ArrayList<>(experiments), population, Constants.NUM_GENERATIONS, Constants.TARGET_FITNESS, Constants.POPULATION_SIZE);
+        List<List<Individual>> result = evolveIslands(new ArrayList<>(experiments), islands, Constants.NUM_GENERATIONS, Constants.TARGET_FITNESS, Constants.POPULATION_SIZE);
+
+        Individual best = getBest(flatten(result));
+        long endTime = System.currentTimeMillis();
+
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
+        saveStats(best, endTime - startTime, "genetic-islands", Constants.NUM_GENERATIONS);
+
+        App.savePopulationAsJson(population, Constants.POPULATION_OUTPUT_PATH);
+        statsWriter.close();
+    }
+
+    private void startSteadyStateGenetic(List<Individual> population, int numEvaluations, long startTime) {
+        if(population == null || population.size() < 2)
+            return;
+
+        console.println("Start Population Size: " + population.size());
+
+        Set<Experiment> experiments = population.get(0).getExperiments();
+        App.saveExperimentsAsJson(experiments, Constants.EXPERIMENT_OUTPUT_PATH);
+
+        initializePopulationProperties(experiments);
+
+        try {
+            statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
+            statsWriter.println("Evaluations,DurationScore,UserGroupScore,StartScore,Total");
+        } catch (FileNotFoundException e) {
+            console.println(e.getMessage());
+        }
+
+        Individual bestStart = getBest(population);
+        statsWriter.println(bestStart.getFitness(props).toCSV(0));
+
+        List<Individual> result = evolveSteadyState(new ArrayList<>(experiments), population, numEvaluations, Constants.TARGET_FITNESS);
 
         Individual best = getBest(result);
         long endTime = System.currentTimeMillis();
 
-        System.out.println("Best at start: " + bestStart.getFitness(props).toString());
-        saveStats(best, endTime - startTime, "genetic", Constants.NUM_GENERATIONS);
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
+        saveStats(best, endTime - startTime, "steadyState", numEvaluations);
 
         App.savePopulationAsJson(population, Constants.POPULATION_OUTPUT_PATH);
         statsWriter.close();
     }
 
     private void shiftTrafficProfile(int newStart) {
-        this.trafficProfile = new HashMap<>(this.trafficProfile.entrySet().stream()
-                .filter(entry -> entry.getKey() >= newStart)
-                .collect(Collectors.toMap((Map.Entry<Integer, HashMap<String, Integer>> e) -> e.getKey() - newStart, e -> e.getValue())));
+        this.trafficProfile = this.trafficProfile.shift(newStart);
     }
 
-    private List<Individual> evolve(List<Experiment> experiments, List<Individual> population, int numGenerations, double targetFitness, int targetPopulationSize) {
-        int generation = 0;
+    private List<Individual> evolve(List<Experiment> experiments, List<Individual> population, int firstGeneration, int numGenerations, double targetFitness, int targetPopulationSize) {
+        int generation = firstGeneration;
+
+        console.println("Start Genetic Algorithm");
+        List<Individual> temp = new ArrayList<>(population);
+        recordBest(getBest(temp), generation);
 
-        System.out.println("Start Genetic Algorithm");
-        final List<Individual> temp = new ArrayList<>(population);
-        Set<Individual> newPopulation = null;
+        while(generation < numGenerations && getPopulationStats(getFitnessList(temp)).getMax() < targetFitness && !budget.isExhausted(generation)) {
+
+            temp = nextGeneration(experiments, temp, generation, targetPopulationSize, 0, true);
+
+            generation++;
+            console.println("Generation " + generation);
+            printPopulationStats(temp, generation);
+            console.println("----------------------");
+            recordBest(getBest(temp), generation);
+
+            if(checkpoints.isDue())
+                checkpoints.write(Checkpoint.ofGeneration(arguments, RandomSource.getSeed(), generation, flushStats(Constants.STATS_OUTPUT_PATH),
+                        crossoverCount.get(), mutationCount.get(), experiments, new ArrayList<>(temp)));
+        }
+        printStopReason("generations", generation);
 
-        while(generation < numGenerations && getPopulationStats(getFitnessList(temp)).getMax() < targetFitness) {
+        return temp;
+    }
 
-            List<Individual> childPopulation = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Breeds one generation: children are produced by selection, crossover, and mutation until there are enough valid
+     * ones, and the best children together with the best of the current population form the next generation.
+     * @param island Island the population belongs to (0, if there is only one population)
+     * @param parallel Whether children are produced in parallel
+     * @return next generation
+     */
+    private List<Individual> nextGeneration(List<Experiment> experiments, List<Individual> population, int generation, int targetPopulationSize, int island, boolean parallel) {
+        ParentSelection selection = SelectionType.valueOf(Constants.SELECTION_TYPE).createSelection(population, props, RandomSource.forTask("selection", island, generation));
+
+        IntStream slots = IntStream.range(0, targetPopulationSize - Constants.ELITISM_SIZE);
+        if(parallel)
+            slots = slots.parallel();
+
+        // children are collected per slot, such that the result does not depend on thread scheduling
+        List<Individual> childPopulation = slots
+            .mapToObj(item -> {
+                Random rand = RandomSource.forTask("evolve", island, generation, item);
+                List<Individual> validChildren = new ArrayList<>();
+                do {
+
+                    Individual parent1 = selection.select(rand);
+                    Individual parent2;
 
-            IntStream.range(0, targetPopulationSize - Constants.ELITISM_SIZE).parallel()
-                .forEach(item -> {
-                    AtomicInteger ordinal = new AtomicInteger(0);
                     do {
+                        parent2 = selection.select(rand);
+                    } while (parent1.getId() == parent2.getId());
+
+                    Set<Individual> children = crossover(parent1, parent2, rand);
+                    this.crossoverCount.addAndGet(children.size());
+
+                    children.stream()
+                            .map(individual -> mutate(individual, experiments, rand))
+                            .filter(individual -> individual.isValid(trafficProfile))
+                            .forEach(validChildren::add);
+                }while(validChildren.size() < 1);
+                return validChildren;
+            })
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+
+        Set<Individual> newPopulation = selectElite(childPopulation, targetPopulationSize - Constants.ELITISM_SIZE);
+        newPopulation.addAll(selectElite(population, targetPopulationSize - newPopulation.size()));
+
+        return new ArrayList<>(newPopulation);
+    }
 
-                        Individual parent1 = fitnessProportionateSelection(temp);
-                        Individual parent2;
+    /**
+     * Island model: every island evolves its own population independently. Every ISLAND_MIGRATION_INTERVAL
+     * generations, the best individuals of each island migrate to its neighbours and replace their worst individuals.
+     */
+    private List<List<Individual>> evolveIslands(List<Experiment> experiments, List<List<Individual>> islands, int numGenerations, double targetFitness, int islandSize) {
+        IslandTopology topology = IslandTopology.valueOf(Constants.ISLAND_TOPOLOGY);
+        int interval = Math.max(1, Constants.ISLAND_MIGRATION_INTERVAL);
+        int generation = 0;
 
-                        do {
-                            parent2 = fitnessProportionateSelection(temp);
-                        } while (parent1.getId() == parent2.getId());
+        console.println("Start Genetic Algorithm with " + islands.size() + " islands (" + topology + " topology)");
+        List<List<Individual>> temp = islands;
+        recordBest(getBest(flatten(temp)), 0);
+
+        while(generation < numGenerations && getPopulationStats(getFitnessList(flatten(temp))).getMax() < targetFitness && !budget.isExhausted(generation)) {
+            final int epochStart = generation;
+            final int epochEnd = Math.min(numGenerations, generation + interval);
+            final List<List<Individual>> current = temp;
+
+            // islands only synchronize for migration
+            temp = IntStream.range(0, current.size()).parallel()
+                    .mapToObj(island -> {
+                        List<Individual> population = current.get(island);
+                        for(int gen = epochStart; gen < epochEnd && getBestFitness(getFitnessList(population)).getValue() < targetFitness && !budget.isTimeUp(); gen++)
+                            population = nextGeneration(experiments, population, gen, islandSize, island, false);
+                        return population;
+                    })
+                    .collect(Collectors.toList());
+
+            generation = epochEnd;
+            if(generation < numGenerations)
+                temp = migrate(temp, topology, generation);
+
+            console.println("Generation " + generation);
+            printPopulationStats(flatten(temp), generation);
+            console.println("----------------------");
+            recordBest(getBest(flatten(temp)), generation);
+        }
+        printStopReason("generations", generation);
 
-                        Set<Individual> children = crossover(parent1, parent2);
-                        this.crossoverCount.addAndGet(children.size());
+        return temp;
+    }
 
-                        children.stream()
-                                .map(individual -> mutate(individual, experiments))
-                                .filter(individual -> individual.isValid(trafficProfile))
-                                .forEach(individual -> {
-                                    childPopulation.add(individual);
-                                    ordinal.getAndIncrement();
-                                });
-                    }while(ordinal.get() < 1);
-                });
+    private List<List<Individual>> migrate(List<List<Individual>> islands, IslandTopology topology, int generation) {
+        Random rand = RandomSource.forTask("migration", generation);
 
-            newPopulation = selectElite(childPopulation, targetPopulationSize - Constants.ELITISM_SIZE);
-            newPopulation.addAll(selectElite(temp, targetPopulationSize - newPopulation.size()));
+        // emigrants are chosen before any island receives immigrants
+        List<List<Individual>> emigrants = islands.stream()
+                .map(population -> getElite(population, Constants.ISLAND_MIGRATION_SIZE))
+                .collect(Collectors.toList());
 
-            temp.clear();
-            temp.addAll(newPopulation);
+        List<List<Individual>> result = new ArrayList<>();
+        for(int island = 0; island < islands.size(); island++) {
+            List<Individual> population = islands.get(island);
 
-            generation++;
-            System.out.println("Generation " + generation);
-            printPopulationStats(temp, generation);
-            System.out.println("----------------------");
+            // immigrants are copies with a new id, such that they can be selected together with their origin
+            List<Individual> immigrants = new ArrayList<>();
+            for(int source : topology.getSources(island, islands.size()))
+                emigrants.get(source).forEach(individual -> immigrants.add(cloneIndividual(individual, RandomSource.randomUUID(rand))));
+
+            int numImmigrants = Math.min(immigrants.size(), Math.max(0, population.size() - Constants.ELITISM_SIZE));
+            List<Individual> next = getElite(population, population.size() - numImmigrants);
+            next.addAll(immigrants.subList(0, numImmigrants));
+            result.add(next);
         }
+        return result;
+    }
 
-        return temp;
+    private List<Individual> getElite(List<Individual> population, int size) {
+        return population.stream()
+                .sorted(Comparator.comparingDouble((Individual individual) -> individual.getFitness(props).getValue()).reversed())
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private List<Individual> flatten(List<List<Individual>> islands) {
+        return islands.stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Steady-state GA: one worker per core repeatedly selects parents, breeds, and validates children, and inserts
+     * them into the shared population in place of its worst individual. There is no barrier between workers, hence
+     * runs are not reproducible. Progress is reported once per second.
+     */
+    private List<Individual> evolveSteadyState(List<Experiment> experiments, List<Individual> population, int numEvaluations, double targetFitness) {
+        SteadyStatePopulation steadyState = new SteadyStatePopulation(population, props);
+        AtomicInteger evaluations = new AtomicInteger(0);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        int numWorkers = Runtime.getRuntime().availableProcessors();
+
+        console.println("Start Steady-State Genetic Algorithm with " + numWorkers + " workers");
+        ExecutorService executor = Executors.newFixedThreadPool(numWorkers);
+
+        for(int worker = 0; worker < numWorkers; worker++) {
+            Random rand = RandomSource.forTask("steadyState", worker);
+
+            executor.execute(() -> {
+                while(evaluations.get() < numEvaluations && steadyState.getBestFitness() < targetFitness && !stopped.get() && !budget.isTimeUp()) {
+                    Individual parent1 = steadyState.select(rand, Constants.TOURNAMENT_SIZE);
+                    Individual parent2 = steadyState.select(rand, Constants.TOURNAMENT_SIZE);
+
+                    if(parent1 == parent2)
+                        continue;
+
+                    Set<Individual> children = crossover(parent1, parent2, rand);
+                    this.crossoverCount.addAndGet(children.size());
+
+                    for(Individual child : children) {
+                        mutate(child, experiments, rand);
+                        evaluations.incrementAndGet();
+
+                        if(child.isValid(trafficProfile))
+                            steadyState.offer(child);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+
+        long start = System.currentTimeMillis();
+        recordBest(steadyState.getBest(), 0);
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                printSteadyStateStats(steadyState, evaluations.get(), System.currentTimeMillis() - start);
+
+                // patience is checked once per second, hence in steps of the evaluations per second
+                recordBest(steadyState.getBest(), evaluations.get());
+                if(budget.isExhausted(evaluations.get()))
+                    stopped.set(true);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        printSteadyStateStats(steadyState, evaluations.get(), System.currentTimeMillis() - start);
+        printStopReason("evaluations", evaluations.get());
+
+        return steadyState.getIndividuals();
+    }
+
+    private void printSteadyStateStats(SteadyStatePopulation population, int evaluations, long duration) {
+        double evaluationsPerSecond = duration > 0 ? evaluations * 1000.0 / duration : 0.0;
+
+        console.println(String.format("evaluations = %d (%.1f/s), best = %f, average = %f", evaluations, evaluationsPerSecond, population.getBestFitness(), population.getAverageFitness()));
+        Fitness best = population.getBest().getFitness(props);
+        console.println(best.toString());
+        statsWriter.println(best.toCSV(evaluations));
+    }
+
+    private void recordBest(Individual best, long step) {
+        recordBest(best, best.getFitness(props).getValue(), step);
+    }
+
+    /**
+     * Records the fitness of the best individual at the given step, and offers the individual as best so far.
+     */
+    private void recordBest(Individual best, float fitness, long step) {
+        saveBestSoFar(budget.improve(fitness, step) ? best : null, fitness);
+    }
+
+    /**
+     * Writes the best individual found so far to SCHEDULE_OUTPUT_PATH, such that a run which is stopped at any time
+     * leaves a usable schedule. Writes are limited to one per second, hence a better individual may be kept until a
+     * later call (with or without a candidate) writes it; the final schedule is written by saveStats.
+     * @param candidate Individual which replaces the best so far if it is better, or null
+     */
+    private synchronized void saveBestSoFar(Individual candidate, float fitness) {
+        if(candidate != null && fitness > bestSoFarFitness) {
+            unsavedBest = candidate;
+            bestSoFarFitness = fitness;
+        }
+
+        long now = System.currentTimeMillis();
+        if(unsavedBest == null || now - lastBestSoFarSave < 1000)
+            return;
+
+        Individual.replaceIndividualAsJson(unsavedBest, Constants.SCHEDULE_OUTPUT_PATH);
+        unsavedBest = null;
+        lastBestSoFarSave = now;
+    }
+
+    private void printStopReason(String unit, long step) {
+        String reason = budget.getStopReason(step);
+        if(reason != null)
+            console.println("Note: Stopped after " + step + " " + unit + " (" + reason + ")");
     }
 
     private Individual getBest(List<Individual> population) {
@@ -164,9 +484,9 @@ public class App implements ExperimentRunner{
         List<Fitness> fitness = getFitnessList(population);
         DoubleSummaryStatistics stats = getPopulationStats(fitness);
 
-        System.out.println("best = " + stats.getMax() + ", average = " + stats.getAverage());
+        console.println("best = " + stats.getMax() + ", average = " + stats.getAverage());
         Fitness best = getBestFitness(fitness);
-        System.out.println(best.toString());
+        console.println(best.toString());
         statsWriter.println(best.toCSV(generation));
     }
 
@@ -183,214 +503,247 @@ public class App implements ExperimentRunner{
                 .collect(Collectors.toList());
     }
 
-    private Individual mutate(Individual individual, List<Experiment> experiments) {
+    Individual mutate(Individual individual, List<Experiment> experiments, Random rand) {
         if(rand.nextFloat() > Constants.MUTATION_PROBABILITY)
             return individual;
 
+        applyMutations(individual, experiments, rand);
+        return individual;
+    }
+
+    /**
+     * Applies MUTATION_SCOPE * #experiments mutations to the given individual.
+     * @return applied moves in the order they were applied, i.e., to be undone in reverse order
+     */
+    private List<Move> applyMutations(Individual individual, List<Experiment> experiments, Random rand) {
         int numMutations = Math.round(experiments.size() * Constants.MUTATION_SCOPE);
-        this.mutationCount.addAndGet(numMutations);
-        int count = 0;
+        List<Move> moves = new ArrayList<>(numMutations);
+        int attempts = 0;
 
-        while(count < numMutations) {
+        // mutations may be rejected, hence the number of attempts is bounded
+        while(moves.size() < numMutations && attempts++ < MAX_MUTATION_ATTEMPTS * numMutations) {
 
             // get experiment to mutate
             Experiment e = experiments.get(rand.nextInt(experiments.size()));
-            Schedule schedule = individual.getScheduledExperiments().get(e);
-
-            MutationType type = MutationType.randomMutationType();
-
-            int hours = 0, start = 0, end = 0;
-            switch (type) {
-                case MoveSchedule:
-                    if (e.isRestarted()) // do not allow moving restarted/running experiments
-                        break;
-
-                    // move schedule by X hours
-                    int shift = 1 + rand.nextInt(Constants.MUTATION_MOVE_BY_HOURS);
-                    boolean backShift = rand.nextBoolean(); // move back or forward
-                    schedule.moveByHours(shift, backShift);
-                    individual.increaseMutationCount();
-                    count++;
-                    break;
-
-                case ShortenSchedule:
-                    /* shorten schedule by X hours */
-                    hours = 1 + rand.nextInt(Constants.MUTATION_SHORTEN_BY_HOURS);
-                    schedule.adjustDuration(-hours);
-                    individual.increaseMutationCount();
-                    count++;
-                    break;
 
-                case ExtendSchedule:
-                    /* extend schedule by X hours */
-                    hours = 1 + rand.nextInt(Constants.MUTATION_EXTEND_BY_HOURS);
-                    schedule.adjustDuration(hours);
-                    individual.increaseMutationCount();
-                    count++;
-                    break;
+            MutationType type = MutationType.randomMutationType(rand);
+            Move move = applyMutation(individual, e, type, rand);
+            if(move != null)
+                moves.add(move);
+        }
 
-                case FlipUserGroup:
+        // rejected mutations do not count
+        this.mutationCount.addAndGet(moves.size());
+        return moves;
+    }
 
-                    // do not allow changing user groups of restarted business experiments
-                    if (e.isRestarted() && e.isBusinessExperiment())
-                        break;
+    /**
+     * Applies a mutation of the given type to a copy of the schedule of an experiment, adjusts its traffic, and
+     * replaces the schedule of the experiment by the copy.
+     * If the mutated experiment violates a constraint, its traffic is re-balanced among its user groups up to
+     * MUTATION_REPAIR_ATTEMPTS times. If it is still invalid, the mutation is undone, hence a mutation never turns
+     * a valid individual into an invalid one.
+     * @return applied move, or null if the mutation could not be applied to the experiment
+     */
+    Move applyMutation(Individual individual, Experiment e, MutationType type, Random rand) {
+        Schedule schedule = cloneSchedule(individual.getScheduledExperiments().get(e));
+
+        boolean applied = false;
+        int hours = 0, start = 0, end = 0;
+        switch (type) {
+            case MoveSchedule:
+                if (e.isRestarted()) // do not allow moving restarted/running experiments
+                    break;
 
-                    /* flip user group of entire experiment */
-                    String old = getRandomUserGroupFromAssignment(schedule.getAssignments()
-                            .get(rand.nextInt(schedule.getAssignments().size())));
-                    String newGroup = getRandomUserGroup(old);
-                    schedule.flipUserGroup(old, newGroup);
-                    individual.increaseMutationCount();
-                    count++;
+                // move schedule by X hours
+                int shift = 1 + rand.nextInt(Constants.MUTATION_MOVE_BY_HOURS);
+                boolean backShift = rand.nextBoolean(); // move back or forward
+                schedule.moveByHours(shift, backShift);
+                applied = true;
+                break;
+
+            case ShortenSchedule:
+                /* shorten schedule by X hours */
+                hours = 1 + rand.nextInt(Constants.MUTATION_SHORTEN_BY_HOURS);
+                schedule.adjustDuration(-hours);
+                applied = true;
+                break;
+
+            case ExtendSchedule:
+                /* extend schedule by X hours */
+                hours = 1 + rand.nextInt(Constants.MUTATION_EXTEND_BY_HOURS);
+                schedule.adjustDuration(hours);
+                applied = true;
+                break;
+
+            case FlipUserGroup:
+
+                // do not allow changing user groups of restarted business experiments
+                if (e.isRestarted() && e.isBusinessExperiment())
                     break;
 
-                case FlipUserGroupRange:
-                    if (!e.isBusinessExperiment()) {
-                        /* flip user group for some time slots */
-                        start = rand.nextInt(schedule.getDuration());
-                        end = start + rand.nextInt(schedule.getDuration() - start);
+                /* flip user group of entire experiment */
+                String old = getRandomUserGroupFromAssignment(schedule.getAssignments()
+                        .get(rand.nextInt(schedule.getAssignments().size())), rand);
+                String newGroup = getRandomUserGroup(old, rand);
+                schedule.flipUserGroup(old, newGroup);
+                applied = true;
+                break;
+
+            case FlipUserGroupRange:
+                if (!e.isBusinessExperiment()) {
+                    /* flip user group for some time slots */
+                    start = rand.nextInt(schedule.getDuration());
+                    end = start + rand.nextInt(schedule.getDuration() - start);
 
-                        // get first time slot
-                        Assignment a = schedule.getAssignments().get(start);
+                    // get first time slot
+                    Assignment a = schedule.getAssignments().get(start);
 
-                        String oldGroup = getRandomUserGroupFromAssignment(a);
-                        String newGroupName = getRandomUserGroup(oldGroup);
+                    String oldGroup = getRandomUserGroupFromAssignment(a, rand);
+                    String newGroupName = getRandomUserGroup(oldGroup, rand);
 
-                        IntStream.rangeClosed(start, end)
-                                .forEach(p -> schedule.getAssignments().get(p).flipUserGroup(oldGroup, newGroupName));
-                        individual.increaseMutationCount();
-                        count++;
-                    }
+                    IntStream.rangeClosed(start, end)
+                            .forEach(p -> schedule.getAssignments().get(p).flipUserGroup(oldGroup, newGroupName));
+                    applied = true;
+                }
+                break;
+
+            case AddUserGroup:
+                // do not allow changing user groups of restarted business experiments
+                if (e.isRestarted() && e.isBusinessExperiment())
                     break;
 
-                case AddUserGroup:
-                    // do not allow changing user groups of restarted business experiments
-                    if (e.isRestarted() && e.isBusinessExperiment())
-                        break;
+                /* add user group to entire schedule */
+                String randomGroup = userGroups.get(rand.nextInt(userGroups.size()));
+                schedule.addUserGroup(randomGroup, Constants.MIN_TRAFFIC_ADJUSTMENT);
+                applied = true;
+                break;
 
-                    /* add user group to entire schedule */
-                    String randomGroup = userGroups.get(rand.nextInt(userGroups.size()));
-                    schedule.addUserGroup(randomGroup, Constants.MIN_TRAFFIC_ADJUSTMENT);
-                    individual.increaseMutationCount();
-                    count++;
+            case AddUserGroupRange:
+                // do not allow changing user groups of restarted business experiments
+                if (e.isRestarted() && e.isBusinessExperiment())
                     break;
 
-                case AddUserGroupRange:
-                    // do not allow changing user groups of restarted business experiments
-                    if (e.isRestarted() && e.isBusinessExperiment())
-                        break;
+                /* add user group for some time slots */
+                start = rand.nextInt(schedule.getDuration());
+                end = start + rand.nextInt(schedule.getDuration() - start);
 
-                    /* add user group for some time slots */
-                    start = rand.nextInt(schedule.getDuration());
-                    end = start + rand.nextInt(schedule.getDuration() - start);
+                start += schedule.getStartSlot();
+                end += schedule.getStartSlot();
 
-                    start += schedule.getStartSlot();
-                    end += schedule.getStartSlot();
+                String group = userGroups.get(rand.nextInt(userGroups.size()));
+                schedule.addUserGroupRange(group, Constants.MIN_TRAFFIC_ADJUSTMENT, start, end);
+                applied = true;
+                break;
 
-                    String group = userGroups.get(rand.nextInt(userGroups.size()));
-                    schedule.addUserGroupRange(group, Constants.MIN_TRAFFIC_ADJUSTMENT, start, end);
-                    individual.increaseMutationCount();
-                    count++;
+            case RemoveUserGroup:
+                // do not allow changing user groups of restarted business experiments
+                if (e.isRestarted() && e.isBusinessExperiment())
                     break;
 
-                case RemoveUserGroup:
-                    // do not allow changing user groups of restarted business experiments
-                    if (e.isRestarted() && e.isBusinessExperiment())
-                        break;
+                List<String> usedGroups = schedule.getUserGroups();
+                schedule.removeUserGroup(usedGroups.get(rand.nextInt(usedGroups.size())));
+                applied = true;
+                break;
 
-                    List<String> usedGroups = schedule.getUserGroups();
-                    schedule.removeUserGroup(usedGroups.get(rand.nextInt(usedGroups.size())));
-                    individual.increaseMutationCount();
-                    count++;
+            case RemoveUserGroupRange:
+                // do not allow changing user groups of restarted experiments
+                if (e.isRestarted() && e.isBusinessExperiment())
                     break;
 
-                case RemoveUserGroupRange:
-                    // do not allow changing user groups of restarted experiments
-                    if (e.isRestarted() && e.isBusinessExperiment())
-                        break;
+                /* remove user group for some time slots */
+                start = rand.nextInt(schedule.getDuration());
+                end = start + rand.nextInt(schedule.getDuration() - start);
 
-                    /* remove user group for some time slots */
-                    start = rand.nextInt(schedule.getDuration());
-                    end = start + rand.nextInt(schedule.getDuration() - start);
+                start += schedule.getStartSlot();
+                end += schedule.getStartSlot();
 
-                    start += schedule.getStartSlot();
-                    end += schedule.getStartSlot();
+                List<String> groups = schedule.getUserGroupsInRange(start, end);
+                schedule.removeUserGroupRange(groups.get(rand.nextInt(groups.size())), start, end);
+                applied = true;
+                break;
 
-                    List<String> groups = schedule.getUserGroupsInRange(start, end);
-                    schedule.removeUserGroupRange(groups.get(rand.nextInt(groups.size())), start, end);
-                    individual.increaseMutationCount();
-                    count++;
-                    break;
+        }
+        if(!applied)
+            return null;
 
-            }
-            smarterTrafficAdjustment(e, schedule);
+        smarterTrafficAdjustment(e, schedule, rand);
+        Move move = new Move(individual, e, schedule);
+        move.apply();
+
+        boolean valid = individual.isValidExperiment(e, trafficProfile);
+        for(int attempt = 0; !valid && attempt < Constants.MUTATION_REPAIR_ATTEMPTS; attempt++) {
+            individual.beforeScheduleChange(e);
+            smarterTrafficAdjustment(e, schedule, rand);
+            individual.afterScheduleChange(e);
+            valid = individual.isValidExperiment(e, trafficProfile);
         }
 
-        return individual;
+        if(!valid) {
+            move.undo();
+            return null;
+        }
+
+        individual.increaseMutationCount();
+        return move;
     }
 
-    private Map<Integer, Map<String,Float>> createSampleRatio(Schedule s) {
+    private Map<Integer, Map<String,Float>> createSampleRatio(Schedule s, Random rand) {
 
         Map<Integer, Map<String, Float>> ratio = new HashMap<>();
 
-        Set<String> previous = null;
-        for(int timeSlot = s.getStartSlot(); timeSlot < s.getStartSlot()+s.getDuration(); timeSlot++) {
-            Assignment a = s.getAssignments().get(timeSlot - s.getStartSlot());
-            Set<String> userGroups = a.getTrafficAssignment().keySet();
+        // one ratio per run of hours using the same user groups
+        GroupRuns runs = s.getGroupRuns();
+        for(int run = 0; run < runs.getNumRuns(); run++) {
+            Assignment first = s.getAssignments().get(runs.getStart(run));
+            Map<String, Float> runRatio = SampleGenerator.createSampleRatio(new ArrayList<>(first.getTrafficAssignment().keySet()), rand);
 
-            if(previous == null || previous.size() != userGroups.size() || !previous.containsAll(userGroups)) {
-                ratio.put(timeSlot, SampleGenerator.createSampleRatio(new ArrayList<>(userGroups)));
-                previous = userGroups;
-            }else if(previous.size() == userGroups.size() && previous.containsAll(userGroups)) {
-                ratio.put(timeSlot, ratio.get(timeSlot - 1));
-            }
+            int startSlot = s.getStartSlot() + runs.getStart(run);
+            for(int timeSlot = startSlot; timeSlot < startSlot + runs.getLength(run); timeSlot++)
+                ratio.put(timeSlot, runRatio);
         }
         return ratio;
     }
 
 
-    private void smarterTrafficAdjustment(Experiment e, Schedule s) {
-        Map<Integer, Map<String, Float>> ratio = createSampleRatio(s);
+    private void smarterTrafficAdjustment(Experiment e, Schedule s, Random rand) {
+        Map<Integer, Map<String, Float>> ratio = createSampleRatio(s, rand);
 
         s.getAssignments()
                 .forEach(assignment -> {
                     long minTraffic = e.getMinTrafficAt(assignment.getHour() - s.getStartSlot(), s.getDuration());
 
                     Map<String,Float> required = ratio.get(assignment.getHour()).entrySet().stream()
-                            .collect(Collectors.toMap((Map.Entry<String,Float> entry) -> entry.getKey(), (Map.Entry<String,Float> entry) -> entry.getValue() * minTraffic / trafficProfile.get(assignment.getHour()).get(entry.getKey())));
+                            .collect(Collectors.toMap((Map.Entry<String,Float> entry) -> entry.getKey(), (Map.Entry<String,Float> entry) -> entry.getValue() * minTraffic / trafficProfile.getTraffic(assignment.getHour(), entry.getKey())));
 
                     required.entrySet().stream()
-                            .forEach(entry -> assignment.getTrafficAssignment().put(entry.getKey(), (float) Math.ceil(entry.getValue() * 1000) / 1000.0F));
+                            .forEach(entry -> assignment.setTraffic(entry.getKey(), (float) Math.ceil(entry.getValue() * 1000) / 1000.0F));
 
                 });
     }
 
-    private long getTrafficAt(HashMap<Integer, HashMap<String, Integer>> trafficProfile, int hour, String userGroup, float percentage) {
-        return Math.round(trafficProfile.get(hour).get(userGroup) * percentage);
-    }
-
-    public String getRandomUserGroupFromAssignment(Assignment assignment) {
+    public String getRandomUserGroupFromAssignment(Assignment assignment, Random rand) {
         // get random user group
-        int item = rand.nextInt(assignment.getTrafficAssignment().keySet().size());
-        int i = 0;
+        return UserGroupRegistry.getName(assignment.getGroupIdAt(rand.nextInt(assignment.getNumGroups())));
+    }
 
-        String entry = null;
-        for(String group : assignment.getTrafficAssignment().keySet()) {
-            if(i == item)
-                entry = group;
-            i++;
-        }
+    /**
+     * Picks one of the user groups of the traffic profile other than the given one, each with the same probability.
+     */
+    private String getRandomUserGroup(String previous, Random rand) {
+        int previousIndex = trafficProfile.getGroupIndex(previous);
+        if(previousIndex < 0)
+            return userGroups.get(rand.nextInt(userGroups.size()));
 
-        return entry;
-    }
+        if(userGroups.size() < 2)
+            return previous;
 
-    private String getRandomUserGroup(String previous) {
-        List<String> tmp = new ArrayList<>(userGroups);
-        tmp.remove(previous);
-        return tmp.get(rand.nextInt(tmp.size()));
+        // skip the index of the previous group
+        int index = rand.nextInt(userGroups.size() - 1);
+        return userGroups.get(index < previousIndex ? index : index + 1);
     }
 
-    private Set<Individual> crossover(Individual parent1, Individual parent2) {
+    Set<Individual> crossover(Individual parent1, Individual parent2, Random rand) {
 
         Set<Individual> children = new HashSet<>();
 
@@ -399,9 +752,9 @@ public class App implements ExperimentRunner{
             Set<Experiment> coveredExperiments = new HashSet<>();
 
             LinkedList<Experiment> experimentQueue = new LinkedList<>(parent1.getExperiments());
-            Collections.shuffle(experimentQueue);
+            Collections.shuffle(experimentQueue, rand);
 
-            Individual child = new Individual(UUID.randomUUID());
+            Individual child = new Individual(RandomSource.randomUUID(rand));
 
             child.setCrossoverCount(parent1.getCrossoverCount().add(parent2.getCrossoverCount()).add(BigInteger.ONE));
             child.setMutationCount(parent1.getMutationCount().add(parent2.getMutationCount()));
@@ -413,27 +766,33 @@ public class App implements ExperimentRunner{
                 if(!coveredExperiments.contains(next)) {
                     float fitnessP1 = parent1.getFitnessOfExperiment(this.props, next, parent1.getScheduledExperiments().get(next)).getValue();
                     float fitnessP2 = parent2.getFitnessOfExperiment(this.props, next, parent2.getScheduledExperiments().get(next)).getValue();
-                    Schedule s;
+                    Schedule better, other;
 
                     if(fitnessP1 > fitnessP2) {
-                        s = cloneSchedule(parent1.getScheduledExperiments().get(next));
+                        better = parent1.getScheduledExperiments().get(next);
+                        other = parent2.getScheduledExperiments().get(next);
                     }else {
-                        s = cloneSchedule(parent2.getScheduledExperiments().get(next));
+                        better = parent2.getScheduledExperiments().get(next);
+                        other = parent1.getScheduledExperiments().get(next);
                     }
 
-                    child.getScheduledExperiments().put(next, s);
+                    // take the schedule of the other parent, if the better one exceeds the traffic left by the schedules taken so far
+                    child.putSchedule(next, better);
+                    if(!child.isValidExperiment(next, trafficProfile))
+                        child.putSchedule(next, other);
+
                     coveredExperiments.add(next);
                 }
 
             }while(coveredExperiments.size() != experiments.size());
             children.add(child);
         }else {
-            Individual child1 = new Individual(UUID.randomUUID(), parent1.getCrossoverCount(), parent1.getMutationCount());
-            Individual child2 = new Individual(UUID.randomUUID(), parent2.getCrossoverCount(), parent2.getMutationCount());
+            Individual child1 = new Individual(RandomSource.randomUUID(rand), parent1.getCrossoverCount(), parent1.getMutationCount());
+            Individual child2 = new Individual(RandomSource.randomUUID(rand), parent2.getCrossoverCount(), parent2.getMutationCount());
 
             experiments.forEach(experiment -> {
-                child1.getScheduledExperiments().put(experiment, cloneSchedule(parent1.getScheduledExperiments().get(experiment)));
-                child2.getScheduledExperiments().put(experiment, cloneSchedule(parent2.getScheduledExperiments().get(experiment)));
+                child1.getScheduledExperiments().put(experiment, parent1.getScheduledExperiments().get(experiment));
+                child2.getScheduledExperiments().put(experiment, parent2.getScheduledExperiments().get(experiment));
             });
 
             children.add(child1);
@@ -443,26 +802,31 @@ public class App implements ExperimentRunner{
         return children;
     }
 
-    private Individual cloneIndividual(Individual individual) {
-        Individual clone = new Individual(individual.getId(), individual.getCrossoverCount(), individual.getMutationCount());
+    Individual cloneIndividual(Individual individual) {
+        return cloneIndividual(individual, individual.getId());
+    }
+
+    /**
+     * Copies an individual. Schedules are shared with the original, as schedules are copied on write by mutations.
+     */
+    private Individual cloneIndividual(Individual individual, UUID id) {
+        Individual clone = new Individual(id, individual.getCrossoverCount(), individual.getMutationCount());
 
-        individual.getScheduledExperiments().entrySet().stream()
-                .forEach(entry -> clone.getScheduledExperiments().put(entry.getKey(), cloneSchedule(entry.getValue())));
+        clone.getScheduledExperiments().putAll(individual.getScheduledExperiments());
+        clone.copyCapacityLedger(individual);
 
         return clone;
     }
 
+    /**
+     * Deep copy of a schedule, to be modified before it replaces the original schedule of an individual.
+     */
     private Schedule cloneSchedule(Schedule s) {
-        Schedule copy = new Schedule();
-        copy.setStartSlot(s.getStartSlot());
-        copy.setAssignments(new ArrayList<>());
+        List<Assignment> assignments = new ArrayList<>(s.getDuration());
+        for(Assignment assignment : s.getAssignments())
+            assignments.add(assignment.copyAssignment());
 
-        s.getAssignments().stream()
-                .forEach(assignment -> {
-                    copy.getAssignments().add(assignment.copyAssignment());
-                });
-
-        return copy;
+        return new Schedule(s.getStartSlot(), assignments);
     }
 
     private Set<Individual> selectElite(List<Individual> population, int size) {
@@ -474,40 +838,6 @@ public class App implements ExperimentRunner{
                 .collect(Collectors.toSet());
     }
 
-    private Individual tournamentSelection(List<Individual> population) {
-        Individual best = null;
-
-        for(int i = 0; i < Constants.TOURNAMENT_SIZE; i++) {
-            Individual pick = population.get(rand.nextInt(population.size()));
-            if(best == null || pick.getFitness(props).getValue() > best.getFitness(props).getValue()) {
-                best = pick;
-            }
-        }
-
-        return best;
-    }
-
-    // Returns the selected index based on the weights(probabilities)
-    private Individual fitnessProportionateSelection(List<Individual> population) {
-        // calculate the total fitness
-        List<Double> fitnessList = population.stream()
-                .map(individual -> individual.getFitness(props).getValue())
-                .mapToDouble(Float::doubleValue).boxed().collect(Collectors.toList());
-
-        double fitness_sum = fitnessList.stream().mapToDouble(Double::doubleValue).sum();
-
-        // get a random value
-        double value = rand.nextDouble() * fitness_sum;
-
-        // locate the random value based on the fitness sums
-        for(int i=0; i < fitnessList.size(); i++) {
-            value -= fitnessList.get(i);
-            if(value < 0) return population.get(i);
-        }
-        // when rounding errors occur, we return the last item's index
-        return population.get(population.size() - 1);
-    }
-
     private int getMaxUserCoverageScore(Set<Experiment> experiments) {
         return experiments.stream()
                 .filter(experiment -> experiment.getPreferredUserGroup() != null && experiment.getPreferredUserGroup().size() > 0)
@@ -526,18 +856,54 @@ public class App implements ExperimentRunner{
                 .collect(Collectors.toMap((Experiment e) -> e.getId(), (Experiment e) -> e.getMinDuration()));
     }
 
-    private List<String> getUserGroups(HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
-        return trafficProfile.values().stream()
-                .flatMap(entry -> entry.keySet().stream())
-                .collect(Collectors.toList());
+    void initializePopulationProperties(Set<Experiment> experiments) {
+        props = new PopulationProperties(trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
+    }
+
+    PopulationProperties getPopulationProperties() {
+        return props;
+    }
+
+    TrafficProfile getTrafficProfile() {
+        return trafficProfile;
     }
 
+    List<String> getUserGroups() {
+        return userGroups;
+    }
+
+    /**
+     * @return Gson instance for all JSON files, which writes them without indentation if COMPACT_JSON is set
+     */
+    public static Gson getGson() {
+        return Constants.COMPACT_JSON ? compactGson : prettyGson;
+    }
+
+    /**
+     * @return Gson instance which writes JSON without indentation regardless of COMPACT_JSON, e.g., for checkpoints
+     */
+    public static Gson getCompactGson() {
+        return compactGson;
+    }
+
+    /**
+     * Saves the population as JSON, or in the binary format if the path has the extension .bin.
+     */
     public static void savePopulationAsJson(List<Individual> population, String path) {
         if(population == null || path == null)
             return;
 
-        try (Writer writer = new FileWriter(path)) {
-            Gson gson = gsonBuilder.create();
+        if(BinaryFormat.isBinaryPath(path)) {
+            try {
+                BinaryFormat.writePopulation(population, path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+
+        try (Writer writer = new BufferedWriter(new FileWriter(path), 1 << 16)) {
+            Gson gson = getGson();
             gson.toJson(population, writer);
         } catch (IOException e) {
             System.out.println(e.getMessage());
@@ -551,7 +917,7 @@ public class App implements ExperimentRunner{
         Individual old = Individual.readIndividualFromJson(individualPath);
 
         if (old == null) {
-            System.out.println("Could not read old schedule");
+            console.println("Could not read old schedule");
             return null;
         }
 
@@ -561,11 +927,11 @@ public class App implements ExperimentRunner{
         } else
             discardedIds = new HashSet<>();
 
-        Individual individual = new Individual(UUID.randomUUID());
+        Individual individual = new Individual(RandomSource.randomUUID(RandomSource.forTask("restart")));
 
         if (newExperimentsPath != null) {
             // add new experiments to individual without schedule
-            App.readExperimentsFromJson(newExperimentsPath).stream()
+            experimentReader.apply(newExperimentsPath).stream()
                     .forEach(experiment -> individual.getScheduledExperiments().put(experiment, null));
         }
 
@@ -576,7 +942,7 @@ public class App implements ExperimentRunner{
                     long consumedTraffic = entry.getValue().getAssignments().stream()
                             .filter(assignment -> assignment.getHour() < timeSlot)
                             .map(assignment -> assignment.getTrafficAssignment().entrySet().stream()
-                                    .map(item -> getTrafficAt(trafficProfile, assignment.getHour(), item.getKey(), item.getValue()))
+                                    .map(item -> trafficProfile.getTrafficAt(assignment.getHour(), item.getKey(), item.getValue()))
                                     .reduce(Long::sum).orElse(0L))
                             .reduce(Long::sum).orElse(0L);
 
@@ -584,8 +950,8 @@ public class App implements ExperimentRunner{
                             .filter(assignment -> assignment.getHour() < timeSlot)
                             .mapToInt(a -> 1).sum();
 
-                    System.out.println("before: " + entry.getKey().toString());
-                    System.out.println(entry.getKey().getId() + ": " + consumedTraffic + " traffic --- " + consumedHours + " hours, totalTraffic: " + entry.getKey().getRequiredTotalTraffic());
+                    console.println("before: " + entry.getKey().toString());
+                    console.println(entry.getKey().getId() + ": " + consumedTraffic + " traffic --- " + consumedHours + " hours, totalTraffic: " + entry.getKey().getRequiredTotalTraffic());
 
                     boolean running = false;
                     Experiment o = entry.getKey();
@@ -607,7 +973,7 @@ public class App implements ExperimentRunner{
                             float startTraffic = running ? o.getMinTrafficAt(timeSlot - schedule.getStartSlot(), schedule.getDuration()) : g.getStartTraffic();
                             e = new GradualExperiment(g.getId(), g.getType(), g.getTargetService(), minDuration, requiredTraffic, g.getPriority(), startTraffic, g.getPreferredUserGroup(), running);
                         }
-                        System.out.println("after: " + e.toString());
+                        console.println("after: " + e.toString());
                         individual.getScheduledExperiments().put(e, schedule);
                     }
                 });
@@ -615,6 +981,9 @@ public class App implements ExperimentRunner{
         return individual;
     }
 
+    /**
+     * Reads a population saved as JSON or in the binary format.
+     */
     public static List<Individual> readPopulationFromJson(String path) {
         if(path == null)
             return null;
@@ -623,27 +992,89 @@ public class App implements ExperimentRunner{
         if(!f.exists() || f.isDirectory())
             return null;
 
-        Gson gson = gsonBuilder.create();
-        try (JsonReader reader = new JsonReader(new FileReader(path))) {
-            return gson.fromJson(reader, new TypeToken<List<Individual>>(){}.getType());
+        if(BinaryFormat.isBinary(path)) {
+            try {
+                return BinaryFormat.readPopulation(path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return null;
+        }
+
+        List<Individual> population = new ArrayList<>();
+        try (PopulationReader reader = new PopulationReader(path)) {
+            reader.forEachRemaining(population::add);
+            return population;
         } catch (IOException e) {
             System.out.println(e.getMessage());
+        } catch (UncheckedIOException e) {
+            System.out.println(e.getCause().getMessage());
         }
         return null;
     }
 
+    /**
+     * Reads the best individual of a saved population. Individuals of a JSON population are read one at a time, such
+     * that only the best one so far is kept in memory. Requires the population properties.
+     * @return first of the best individuals, as getBest, or null if the population could not be read
+     */
+    private Individual readBestFromJson(String path) {
+        if(path == null || !new File(path).isFile())
+            return null;
+
+        if(BinaryFormat.isBinary(path)) {
+            List<Individual> population = readPopulationFromJson(path);
+            return population == null || population.isEmpty() ? null : getBest(population);
+        }
+
+        Individual best = null;
+        float bestFitness = 0.0F;
+        try (PopulationReader reader = new PopulationReader(path)) {
+            while(reader.hasNext()) {
+                Individual individual = reader.next();
+                float fitness = individual.getFitness(props).getValue();
+                if(best == null || fitness > bestFitness) {
+                    best = individual;
+                    bestFitness = fitness;
+                }
+            }
+        } catch (IOException e) {
+            console.println(e.getMessage());
+            return null;
+        } catch (UncheckedIOException e) {
+            console.println(e.getCause().getMessage());
+            return null;
+        }
+        return best;
+    }
+
+    /**
+     * Saves the experiments as JSON, or in the binary format if the path has the extension .bin.
+     */
     public static void saveExperimentsAsJson(Set<Experiment> experiments, String path) {
         if(experiments == null || path == null)
             return;
 
-        try (Writer writer = new FileWriter(path)) {
-            Gson gson = gsonBuilder.create();
+        if(BinaryFormat.isBinaryPath(path)) {
+            try {
+                BinaryFormat.writeExperiments(experiments, path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+
+        try (Writer writer = new BufferedWriter(new FileWriter(path), 1 << 16)) {
+            Gson gson = getGson();
             gson.toJson(experiments, new TypeToken<Set<Experiment>>(){}.getType(), writer);
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
     }
 
+    /**
+     * Reads experiments saved as JSON or in the binary format.
+     */
     public static Set<Experiment> readExperimentsFromJson(String path) {
         if(path == null)
             return null;
@@ -652,7 +1083,16 @@ public class App implements ExperimentRunner{
         if(!f.exists() || f.isDirectory())
             return null;
 
-        Gson gson = gsonBuilder.create();
+        if(BinaryFormat.isBinary(path)) {
+            try {
+                return BinaryFormat.readExperiments(path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return null;
+        }
+
+        Gson gson = getGson();
         try (JsonReader reader = new JsonReader(new FileReader(path))) {
             return gson.fromJson(reader, new TypeToken<Set<Experiment>>(){}.getType());
         } catch (IOException e) {
@@ -661,6 +1101,46 @@ public class App implements ExperimentRunner{
         return null;
     }
 
+    /**
+     * Converts a population, schedule, or experiments file between JSON and the binary format, as given by the
+     * extension of the output file.
+     */
+    public static void convert(String inputPath, String outputPath) {
+        BinaryFormat.Kind kind = BinaryFormat.detectKind(inputPath);
+        if(kind == null) {
+            System.out.println("Could not read " + inputPath);
+            return;
+        }
+
+        Object content = null;
+        switch(kind) {
+            case POPULATION:
+                List<Individual> population = readPopulationFromJson(inputPath);
+                savePopulationAsJson(population, outputPath);
+                content = population;
+                break;
+            case INDIVIDUAL:
+                Individual individual = Individual.readIndividualFromJson(inputPath);
+                Individual.saveIndividualAsJson(individual, outputPath);
+                content = individual;
+                break;
+            case EXPERIMENTS:
+                Set<Experiment> experiments = readExperimentsFromJson(inputPath);
+                saveExperimentsAsJson(experiments, outputPath);
+                content = experiments;
+                break;
+            case CHECKPOINT:
+                Checkpoint checkpoint = Checkpoint.read(inputPath);
+                if(checkpoint != null)
+                    checkpoint.write(outputPath);
+                content = checkpoint;
+                break;
+        }
+
+        if(content != null)
+            System.out.println("Converted " + kind.name().toLowerCase() + " " + inputPath + " (" + new File(inputPath).length() + " bytes) to " + outputPath + " (" + new File(outputPath).length() + " bytes)");
+    }
+
     private void saveStats(Individual best, long duration, String type, int value) {
         long second = (duration / 1000) % 60;
         long minute = (duration / (1000 * 60)) % 60;
@@ -670,12 +1150,12 @@ public class App implements ExperimentRunner{
         String time = String.format("%02d:%02d:%02d:%d", hour, minute, second, millis);
 
         Fitness bestFitness = best.getFitness(props);
-        System.out.println("Best (" + type + "): " + bestFitness.toString());
-        System.out.println("Total Runtime: " + time + " (" + duration / 1000 + " sec)");
+        console.println("Best (" + type + "): " + bestFitness.toString());
+        console.println("Total Runtime: " + time + " (" + duration / 1000 + " sec)");
         best.printASCIISchedule(Constants.ASCII_OUTPUT_PATH);
         best.exportTrafficConsumptionAsCsv(Constants.CONSUMPTION_OUTPUT_PATH, "service1", this.trafficProfile);
 
-        Individual.saveIndividualAsJson(best, Constants.SCHEDULE_OUTPUT_PATH);
+        Individual.replaceIndividualAsJson(best, Constants.SCHEDULE_OUTPUT_PATH);
 
         try (FileWriter fw = new FileWriter(Constants.RESULT_LOG, true)) {
             if(type.startsWith("genetic")) {
@@ -686,7 +1166,7 @@ public class App implements ExperimentRunner{
                         duration + "," + this.crossoverCount.get() + "," + this.mutationCount.get() + "," + bestFitness.getIndividualScoresCommaSeparated() + System.lineSeparator());
             }
         } catch (IOException e) {
-            System.out.println(e.getMessage());
+            console.println(e.getMessage());
         }
     }
 
@@ -694,36 +1174,63 @@ public class App implements ExperimentRunner{
         initialize(trafficProfilePath);
 
         if(experimentPath == null && numExperiments <= 0) {
-            System.out.println("Invalid experiments or non-positive number of experiments specified");
+            console.println("Invalid experiments or non-positive number of experiments specified");
             return;
         }
 
         Set<Experiment> experiments;
         if(experimentPath == null)
-            experiments = SampleGenerator.createSampleExperiments(numExperiments, userGroups, Arrays.asList("service1"));
+            experiments = SampleGenerator.createSampleExperiments(numExperiments, userGroups, Arrays.asList("service1"), RandomSource.forTask("experiments"));
         else
-            experiments = App.readExperimentsFromJson(experimentPath);
+            experiments = experimentReader.apply(experimentPath);
 
         if(experiments == null)
             return;
 
         long startTime = System.currentTimeMillis();
 
+        List<Individual> entirePopulation = resumed != null ? resumeFromCheckpoint() : createStartPopulation(experiments);
+
+        startGenetic(entirePopulation, startTime);
+    }
+
+    private List<Individual> createStartPopulation(Set<Experiment> experiments) {
         long timePopulationStart = System.currentTimeMillis();
 
         List<Individual> entirePopulation;
         if(Constants.EVALUATION_RUN) {
             entirePopulation = App.readPopulationFromJson(Constants.POPULATION_OUTPUT_PATH);
             initializeCounters(entirePopulation);
-            System.out.println("Note: Start with existing population");
+            console.println("Note: Start with existing population");
         }else {
             entirePopulation = SampleGenerator.createPopulation(Constants.POPULATION_SIZE, experiments, userGroups, trafficProfile);
         }
 
         long timePopulationEnd = System.currentTimeMillis();
-        System.out.println((timePopulationEnd - timePopulationStart) / 1000 + " seconds for sampling");
+        console.println((timePopulationEnd - timePopulationStart) / 1000 + " seconds for sampling");
 
-        startGenetic(entirePopulation, startTime);
+        return entirePopulation;
+    }
+
+    @Override
+    public void executeSteadyStateGenetic(String trafficProfilePath, String experimentPath, int numEvaluations) {
+        initialize(trafficProfilePath);
+
+        if(numEvaluations <= 0) {
+            console.println("Non-positive number of evaluations specified");
+            return;
+        }
+
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
+
+        if(experiments == null)
+            return;
+
+        long startTime = System.currentTimeMillis();
+
+        List<Individual> entirePopulation = createStartPopulation(experiments);
+
+        startSteadyStateGenetic(entirePopulation, numEvaluations, startTime);
     }
 
     @Override
@@ -736,12 +1243,54 @@ public class App implements ExperimentRunner{
         executeGenetic(trafficProfile, experiments, -1);
     }
 
+    @Override
+    public void executeIslandGenetic(String trafficProfilePath, String experimentPath, int numIslands) {
+        initialize(trafficProfilePath);
+
+        if(numIslands <= 0) {
+            console.println("Non-positive number of islands specified");
+            return;
+        }
+
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
+
+        if(experiments == null)
+            return;
+
+        long startTime = System.currentTimeMillis();
+
+        // every island holds POPULATION_SIZE individuals
+        int size = numIslands * Constants.POPULATION_SIZE;
+
+        List<Individual> entirePopulation = null;
+        if(Constants.EVALUATION_RUN) {
+            entirePopulation = App.readPopulationFromJson(Constants.POPULATION_OUTPUT_PATH);
+
+            if(entirePopulation != null && entirePopulation.size() >= size) {
+                initializeCounters(entirePopulation);
+                console.println("Note: Start with existing population");
+            }else {
+                console.println("Note: Existing population is too small for " + numIslands + " islands, sampling a new one");
+                entirePopulation = null;
+            }
+        }
+        if(entirePopulation == null)
+            entirePopulation = SampleGenerator.createPopulation(size, experiments, userGroups, trafficProfile);
+
+        final List<Individual> population = entirePopulation;
+        List<List<Individual>> islands = IntStream.range(0, numIslands)
+                .<List<Individual>>mapToObj(island -> new ArrayList<>(population.subList(island * Constants.POPULATION_SIZE, (island + 1) * Constants.POPULATION_SIZE)))
+                .collect(Collectors.toList());
+
+        startIslandGenetic(islands, startTime);
+    }
+
     @Override
     public void executeGeneticRestart(String trafficProfile, String schedule, String newExperiments, int restartAt, String discardExperiments) {
         initialize(trafficProfile);
 
         if(restartAt <= 0) {
-            System.out.println("Restart time slot must be positive");
+            console.println("Restart time slot must be positive");
             return;
         }
 
@@ -750,7 +1299,7 @@ public class App implements ExperimentRunner{
         Individual individual = prepareRestart(schedule, newExperiments, discardExperiments, restartAt);
 
         if(individual == null) {
-            System.out.println("Restart of genetic algorithm failed.");
+            console.println("Restart of genetic algorithm failed.");
             return;
         }
 
@@ -758,10 +1307,12 @@ public class App implements ExperimentRunner{
 
         // create new population
         List<Individual> population;
-        if(Constants.EVALUATION_RUN) {
+        if(resumed != null) {
+            population = resumeFromCheckpoint();
+        }else if(Constants.EVALUATION_RUN) {
             population = App.readPopulationFromJson(Constants.POPULATION_OUTPUT_PATH);
             initializeCounters(population);
-            System.out.println("Note: Start with existing population");
+            console.println("Note: Start with existing population");
         }else {
             population = SampleGenerator.createPopulationForRestart(Constants.POPULATION_SIZE, individual, userGroups, restartAt, this.trafficProfile);
         }
@@ -774,27 +1325,48 @@ public class App implements ExperimentRunner{
         initialize(trafficProfile);
 
         if(experimentPath == null) {
-            System.out.println("Experiments not specified");
+            console.println("Experiments not specified");
             return;
         }
 
-        Set<Experiment> experiments = App.readExperimentsFromJson(experimentPath);
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
 
         if(experiments == null)
             return;
 
+        if(sampleSize <= 0) {
+            console.println("Sample size must be positive");
+            return;
+        }
+
         long startTime = System.currentTimeMillis();
 
-        List<Individual> entirePopulation = SampleGenerator.createPopulation(Constants.POPULATION_SIZE, experiments, userGroups, this.trafficProfile);
+        List<Individual> entirePopulation = SampleGenerator.createPopulation(Math.min(Constants.POPULATION_SIZE, sampleSize), experiments, userGroups, this.trafficProfile);
 
-        props = new PopulationProperties(this.trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
+        initializePopulationProperties(experiments);
 
         Individual best = getBest(entirePopulation);
+        int sampled = entirePopulation.size();
+        recordBest(best, sampled);
+
+        // beyond the population, samples are drawn in batches until sampleSize or the budget is exhausted; only the best
+        // individual of the batches is kept
+        while(sampled < sampleSize && !budget.isExhausted(sampled)) {
+            List<Individual> batch = SampleGenerator.createPopulation(Math.min(Constants.POPULATION_SIZE, sampleSize - sampled), sampled, experiments, userGroups, this.trafficProfile);
+            sampled += batch.size();
+
+            Individual batchBest = getBest(batch);
+            if(batchBest.getFitness(props).getValue() > best.getFitness(props).getValue())
+                best = batchBest;
+            recordBest(best, sampled);
+        }
+        printStopReason("samples", sampled);
 
         long endTime = System.currentTimeMillis();
 
         saveStats(best, endTime - startTime, "random sampling", sampleSize );
 
+        // as for the other algorithms, the start population, i.e., the first batch, is saved rather than all samples
         if(Constants.EVALUATION_RUN)
             App.savePopulationAsJson(entirePopulation, Constants.POPULATION_OUTPUT_PATH);
     }
@@ -804,15 +1376,14 @@ public class App implements ExperimentRunner{
         initialize(trafficProfile);
 
         if(restartAt <= 0) {
-            System.out.println("Restart time slot must be positive");
+            console.println("Restart time slot must be positive");
             return;
         }
 
         Individual individual = prepareRestart(schedule, newExperiments, discardedExperiments, restartAt);
 
         if(individual == null) {
-            System.out.println("Restart of random sampling algorithm failed.");
-            System.exit(1);
+            throw new IllegalStateException("Restart of random sampling algorithm failed.");
         }
 
         shiftTrafficProfile(restartAt);
@@ -824,7 +1395,7 @@ public class App implements ExperimentRunner{
 
         Set<Experiment> experiments = entirePopulation.get(0).getExperiments();
 
-        props = new PopulationProperties(this.trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
+        initializePopulationProperties(experiments);
 
         Individual best = getBest(entirePopulation);
 
@@ -839,66 +1410,298 @@ public class App implements ExperimentRunner{
     private Individual performLocalSearchOrSA(Individual individual, int iterations, boolean simulated_annealing) {
 
         try {
-            statsWriter = new PrintWriter("stats.csv");
-            statsWriter.println("Iteration,DurationScore,UserGroupScore,StartScore,Total");
-        } catch (FileNotFoundException e) {
-            System.out.println(e.getMessage());
+            if(resumed != null) {
+                statsWriter = reopenStats(Constants.STATS_OUTPUT_PATH, resumed.getStatsOffset());
+            }else {
+                statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
+                statsWriter.println("Iteration,DurationScore,UserGroupScore,StartScore,Total");
+            }
+        } catch (IOException e) {
+            console.println(e.getMessage());
         }
 
-        Individual best = cloneIndividual(individual);
-        Fitness bestFitness = best.getFitness(props);
-        List<Experiment> experiments = new ArrayList<>(individual.getExperiments());
+        Random rand = resumed != null ? RandomSource.fromState(resumed.getRandomState()) : RandomSource.forTask(simulated_annealing ? "SA" : "localSearch");
+        List<Experiment> experiments = resumed != null ? resumed.getExperiments() : new ArrayList<>(individual.getExperiments());
 
-        double temperature = Constants.SA_STARTING_TEMP;
-        double decrease = Constants.SA_TEMP_DECREASE;
+        // neighbours are visited by applying moves to the current individual, rejected neighbours are undone
+        Individual current = cloneIndividual(individual);
+        if(resumed == null && !current.isValid(this.trafficProfile))
+            console.println("Note: Start individual is invalid");
+        Fitness currentFitness = current.getFitness(props);
 
-        Set<Double> increases = new HashSet<>();
+        // SA may leave the best individual, which is therefore kept separately
+        Individual best = resumed != null ? resumed.getBest() : cloneIndividual(current);
+        Fitness bestFitness = resumed != null ? best.getFitness(props) : currentFitness;
 
-        int counter = 0;
-        while(counter < iterations) {
-            Individual neighbor;
-            do {
-                neighbor = mutate(cloneIndividual(best), experiments);
-            }while(!neighbor.isValid(this.trafficProfile));
+        double temperature = resumed != null ? resumed.getTemperature() : Constants.SA_STARTING_TEMP;
+        double decrease = Constants.SA_TEMP_DECREASE;
 
-            if(!simulated_annealing) {
-                // perform local search
-                Fitness neighborFitness = neighbor.getFitness(props);
+        Set<Double> increases = resumed != null ? new HashSet<>(resumed.getIncreases()) : new HashSet<>();
 
-                if (bestFitness.getValue() < neighborFitness.getValue()) {
-                    increases.add((double) neighborFitness.getValue() - bestFitness.getValue());
-                    best = neighbor;
-                    bestFitness = neighborFitness;
-                }
-            }else {
-                // perform simulated annealing
-                double acceptProbability = Math.exp(-Math.abs(best.getFitness(props).getValue() - neighbor.getFitness(props).getValue()) / temperature);
-                Fitness neighborFitness = neighbor.getFitness(props);
+        int counter = resumed != null ? resumed.getStep() : 0;
+        recordBest(best, bestFitness.getValue(), counter);
+        while(counter < iterations && !budget.isExhausted(counter)) {
+            Fitness previousFitness = currentFitness;
+            currentFitness = searchStep(current, currentFitness, experiments, simulated_annealing ? temperature : 0.0, rand);
 
-                if(bestFitness.getValue() < neighborFitness.getValue() || rand.nextDouble() < acceptProbability) {
-                    best = neighbor;
-                    bestFitness = neighborFitness;
-                }
+            if(simulated_annealing)
                 temperature *= decrease;
+            else if(currentFitness.getValue() > previousFitness.getValue())
+                increases.add((double) currentFitness.getValue() - previousFitness.getValue());
+
+            if(currentFitness.getValue() > bestFitness.getValue()) {
+                best = cloneIndividual(current);
+                bestFitness = currentFitness;
             }
 
-            statsWriter.println(bestFitness.toCSV(counter));
+            statsWriter.println(currentFitness.toCSV(counter));
             counter++;
+            recordBest(best, bestFitness.getValue(), counter);
+
+            if(checkpoints.isDue())
+                checkpoints.write(Checkpoint.ofIteration(arguments, RandomSource.getSeed(), counter, flushStats(Constants.STATS_OUTPUT_PATH), crossoverCount.get(), mutationCount.get(),
+                        experiments, cloneIndividual(current), best, temperature, RandomSource.getState(rand), new ArrayList<>(increases)));
         }
+        printStopReason("iterations", counter);
 
-        if(!simulated_annealing) {
+        if(!simulated_annealing && !increases.isEmpty()) {
             double avgIncrease = increases.stream().mapToDouble(Double::doubleValue).average().getAsDouble();
-            System.out.println("start temp: " + avgIncrease / -Math.log(0.8));
+            console.println("start temp: " + avgIncrease / -Math.log(0.8));
+        }
+
+        statsWriter.close();
+        return best;
+    }
+
+    /**
+     * Parallel tempering (replica exchange): numChains chains perform simulated annealing in parallel, each at a fixed
+     * temperature of a geometric ladder from SA_STARTING_TEMP (chain 0) down to PT_MIN_TEMP (last chain), which does not
+     * depend on the number of iterations. Every PT_SWAP_INTERVAL iterations, neighbouring chains exchange their
+     * individuals with the Metropolis probability, such that good individuals found by hot chains are refined by cold
+     * chains.
+     * @return best individual found by any chain
+     */
+    private Individual performParallelTempering(Individual individual, int iterations, int numChains) {
+        if(!(Constants.SA_STARTING_TEMP > 0) || !(Constants.PT_MIN_TEMP > 0))
+            throw new IllegalStateException("Parallel tempering requires positive temperatures SA_STARTING_TEMP and PT_MIN_TEMP");
+
+        try {
+            statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
+            statsWriter.println("Iteration,DurationScore,UserGroupScore,StartScore,Total");
+        } catch (FileNotFoundException e) {
+            console.println(e.getMessage());
+        }
+
+        List<Experiment> experiments = new ArrayList<>(individual.getExperiments());
+        int interval = Math.max(1, Constants.PT_SWAP_INTERVAL);
+
+        // the coldest chain is not colder than PT_MIN_TEMP, nor hotter than the hottest one
+        double maxTemp = Constants.SA_STARTING_TEMP;
+        double minTemp = Math.min(Constants.PT_MIN_TEMP, maxTemp);
+
+        double[] temperatures = new double[numChains];
+        Individual[] chains = new Individual[numChains];
+        Fitness[] fitness = new Fitness[numChains];
+        Random[] rands = new Random[numChains];
+        for(int chain = 0; chain < numChains; chain++) {
+            double exponent = numChains > 1 ? chain / (double) (numChains - 1) : 0.0;
+            temperatures[chain] = maxTemp * Math.pow(minTemp / maxTemp, exponent);
+            chains[chain] = cloneIndividual(individual);
+            fitness[chain] = chains[chain].getFitness(props);
+            rands[chain] = RandomSource.forTask("parallelTempering", chain);
         }
+        Random swapRand = RandomSource.forTask("parallelTemperingSwap");
+
+        Individual best = cloneIndividual(individual);
+        Fitness bestFitness = best.getFitness(props);
+        recordBest(best, bestFitness.getValue(), 0);
+
+        int counter = 0;
+        for(; counter < iterations && !budget.isExhausted(counter); counter += interval) {
+            final int steps = Math.min(interval, iterations - counter);
+
+            // chains only synchronize for exchanges
+            IntStream.range(0, numChains).parallel()
+                    .forEach(chain -> {
+                        for(int step = 0; step < steps; step++)
+                            fitness[chain] = searchStep(chains[chain], fitness[chain], experiments, temperatures[chain], rands[chain]);
+                    });
+
+            for(int chain = 0; chain < numChains; chain++) {
+                if(fitness[chain].getValue() > bestFitness.getValue()) {
+                    best = cloneIndividual(chains[chain]);
+                    bestFitness = fitness[chain];
+                }
+            }
+            recordBest(best, bestFitness.getValue(), counter + steps);
+
+            // alternate between even and odd pairs of neighbouring temperatures
+            for(int chain = (counter / interval) % 2; chain + 1 < numChains; chain += 2) {
+                double delta = (fitness[chain + 1].getValue() - fitness[chain].getValue()) * (1 / temperatures[chain] - 1 / temperatures[chain + 1]);
+                if(delta >= 0 || swapRand.nextDouble() < Math.exp(delta)) {
+                    Individual tmpIndividual = chains[chain];
+                    chains[chain] = chains[chain + 1];
+                    chains[chain + 1] = tmpIndividual;
+
+                    Fitness tmpFitness = fitness[chain];
+                    fitness[chain] = fitness[chain + 1];
+                    fitness[chain + 1] = tmpFitness;
+                }
+            }
+
+            statsWriter.println(bestFitness.toCSV(counter + steps));
+        }
+        printStopReason("iterations", Math.min(counter, iterations));
 
         statsWriter.close();
         return best;
     }
 
+    /**
+     * Performs one iteration of local search or simulated annealing on the given individual, i.e., applies mutations
+     * and undoes them if the neighbour is rejected. Better neighbours are always accepted, others with the Metropolis
+     * probability at the given temperature, or never at a temperature of 0 (local search).
+     * @return fitness of the individual after the iteration
+     */
+    private Fitness searchStep(Individual current, Fitness currentFitness, List<Experiment> experiments, double temperature, Random rand) {
+        List<Move> moves = applyMutations(current, experiments, rand);
+        Fitness neighborFitness = current.getFitness(props);
+
+        if(currentFitness.getValue() < neighborFitness.getValue())
+            return neighborFitness;
+
+        if(temperature > 0 && rand.nextDouble() < Math.exp(-Math.abs(currentFitness.getValue() - neighborFitness.getValue()) / temperature))
+            return neighborFitness;
+
+        for(int i = moves.size() - 1; i >= 0; i--)
+            moves.get(i).undo();
+        return currentFitness;
+    }
+
+    /**
+     * Multi-start local search: every start individual is hill-climbed for the given number of iterations, concurrently
+     * on the common fork-join pool. The starts run in rounds of 5% of the iterations. After every round, the best
+     * individual is updated, and starts are stopped whose fitness is below MULTI_START_CUT_RATIO times the best fitness
+     * of any start after the same round, i.e., starts are compared at equal effort. As the starts only depend on each
+     * other between rounds, a run is reproducible for a given seed unless it is stopped by the time budget.
+     * @return best individual found by any start
+     */
+    private Individual performMultiStartLocalSearch(List<Individual> starts, int iterations) {
+        try {
+            statsWriter = new PrintWriter(Constants.STATS_OUTPUT_PATH);
+            statsWriter.println("Iteration,DurationScore,UserGroupScore,StartScore,Total");
+        } catch (FileNotFoundException e) {
+            console.println(e.getMessage());
+        }
+
+        List<Experiment> experiments = new ArrayList<>(starts.get(0).getExperiments());
+        int interval = Math.max(1, iterations / 20);
+        int numStarts = starts.size();
+
+        Individual[] current = new Individual[numStarts];
+        Fitness[] fitness = new Fitness[numStarts];
+        Random[] rands = new Random[numStarts];
+        RunBudget[] budgets = new RunBudget[numStarts];
+        boolean[] running = new boolean[numStarts];
+        for(int start = 0; start < numStarts; start++) {
+            current[start] = cloneIndividual(starts.get(start));
+            fitness[start] = current[start].getFitness(props);
+            rands[start] = RandomSource.forTask("multiStartLocalSearch", start);
+
+            // every start has its own patience
+            budgets[start] = budget.fork();
+            budgets[start].improve(fitness[start].getValue(), 0);
+            running[start] = true;
+        }
+
+        Individual best = cloneIndividual(getBest(starts));
+        Fitness bestFitness = best.getFitness(props);
+        recordBest(best, bestFitness.getValue(), 0);
+        int cut = 0;
+        boolean anyRunning = true;
+
+        for(int counter = 0; counter < iterations && anyRunning; counter += interval) {
+            final int from = counter;
+            final int to = Math.min(counter + interval, iterations);
+
+            IntStream.range(0, numStarts).parallel()
+                    .filter(start -> running[start])
+                    .forEach(start -> {
+                        for(int iteration = from; iteration < to; iteration++) {
+                            if(budgets[start].isExhausted(iteration)) {
+                                running[start] = false;
+                                return;
+                            }
+
+                            Fitness previous = fitness[start];
+                            fitness[start] = searchStep(current[start], previous, experiments, 0.0, rands[start]);
+                            if(fitness[start].getValue() > previous.getValue())
+                                budgets[start].improve(fitness[start].getValue(), iteration + 1);
+                        }
+                    });
+
+            // best fitness of the starts which completed the round
+            float roundBest = 0.0F;
+            for(int start = 0; start < numStarts; start++) {
+                if(running[start])
+                    roundBest = Math.max(roundBest, fitness[start].getValue());
+
+                if(fitness[start].getValue() > bestFitness.getValue()) {
+                    best = cloneIndividual(current[start]);
+                    bestFitness = fitness[start];
+                }
+            }
+            recordBest(best, bestFitness.getValue(), to);
+            statsWriter.println(bestFitness.toCSV(to));
+
+            anyRunning = false;
+            for(int start = 0; start < numStarts; start++) {
+                if(running[start] && to < iterations && fitness[start].getValue() < Constants.MULTI_START_CUT_RATIO * roundBest) {
+                    running[start] = false;
+                    cut++;
+                }
+                anyRunning |= running[start];
+            }
+        }
+
+        statsWriter.close();
+
+        console.println(cut + " of " + numStarts + " starts stopped early");
+        if(budget.isTimeUp())
+            console.println("Note: Stopped early (time budget exhausted)");
+        return best;
+    }
+
+    @Override
+    public void executeMultiStartLocalSearch(String trafficProfilePath, String experimentPath, int iterations) {
+        initialize(trafficProfilePath);
+
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
+
+        if(experiments == null)
+            return;
+
+        long startTime = System.currentTimeMillis();
+
+        List<Individual> entirePopulation = createStartPopulation(experiments);
+
+        initializePopulationProperties(experiments);
+
+        Individual bestStart = getBest(entirePopulation);
+
+        console.println("Start multi-start local search with " + entirePopulation.size() + " starts");
+        Individual best = performMultiStartLocalSearch(entirePopulation, iterations);
+
+        long endTime = System.currentTimeMillis();
+
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
+        saveStats(best, endTime - startTime, "multi-start local search", iterations);
+    }
+
     private void executeLocalSearchOrSA(String trafficProfile, String experimentPath, int iterations, boolean simulated_annealing) {
         initialize(trafficProfile);
 
-        Set<Experiment> experiments = App.readExperimentsFromJson(experimentPath);
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
 
         if(experiments == null)
             return;
@@ -907,40 +1710,46 @@ public class App implements ExperimentRunner{
 
         List<Individual> entirePopulation;
 
-        if(Constants.EVALUATION_RUN) {
-            entirePopulation = App.readPopulationFromJson(Constants.POPULATION_OUTPUT_PATH);
+        initializePopulationProperties(experiments);
+
+        if(resumed != null) {
+            entirePopulation = resumeFromCheckpoint();
+        }else if(Constants.EVALUATION_RUN) {
+            // only the best individual is searched from, hence the others are not kept in memory
+            Individual bestSaved = readBestFromJson(Constants.POPULATION_OUTPUT_PATH);
+            if(bestSaved == null)
+                throw new IllegalStateException("Could not read population " + Constants.POPULATION_OUTPUT_PATH);
+            entirePopulation = Collections.singletonList(bestSaved);
             initializeCounters(entirePopulation);
-            System.out.println("Note: Start with existing population");
+            console.println("Note: Start with existing population");
         }else {
             entirePopulation = SampleGenerator.createPopulation(Constants.POPULATION_SIZE, experiments, userGroups, this.trafficProfile);
         }
 
-        props = new PopulationProperties(this.trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
-
         Individual bestStart = getBest(entirePopulation);
 
-        System.out.println("Start " + (simulated_annealing ? "SA" : "local search"));
-        Individual best = performLocalSearchOrSA(getBest(entirePopulation), iterations, false);
+        console.println("Start " + (simulated_annealing ? "SA" : "local search"));
+        Individual best = performLocalSearchOrSA(getBest(entirePopulation), iterations, simulated_annealing);
 
         long endTime = System.currentTimeMillis();
 
-        System.out.println("Best at start: " + bestStart.getFitness(props).toString());
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
         saveStats(best, endTime - startTime, (simulated_annealing ? "SA" : "local search"), iterations);
+        checkpoints.finish();
     }
 
     private void executeLocalSearchOrSARestart(String trafficProfile, String schedule, String newExperiments, int restartAt, String discardedExperiments, int iterations, boolean simulated_annealing) {
         initialize(trafficProfile);
 
         if(restartAt <= 0) {
-            System.out.println("Restart time slot must be positive");
+            console.println("Restart time slot must be positive");
             return;
         }
 
         Individual individual = prepareRestart(schedule, newExperiments, discardedExperiments, restartAt);
 
         if(individual == null) {
-            System.out.println("Restart of " + (simulated_annealing ? "SA" : "local search")  + "algorithm failed.");
-            System.exit(1);
+            throw new IllegalStateException("Restart of " + (simulated_annealing ? "SA" : "local search")  + "algorithm failed.");
         }
 
         shiftTrafficProfile(restartAt);
@@ -949,23 +1758,26 @@ public class App implements ExperimentRunner{
 
         // create new population
         List<Individual> entirePopulation;
-        if(Constants.EVALUATION_RUN) {
+        if(resumed != null) {
+            entirePopulation = resumeFromCheckpoint();
+        }else if(Constants.EVALUATION_RUN) {
             entirePopulation = App.readPopulationFromJson(Constants.POPULATION_OUTPUT_PATH);
             initializeCounters(entirePopulation);
-            System.out.println("Note: Start with existing population");
+            console.println("Note: Start with existing population");
         }else {
             entirePopulation = SampleGenerator.createPopulationForRestart(Constants.POPULATION_SIZE, individual, userGroups, restartAt, this.trafficProfile);
         }
 
         Set<Experiment> experiments = entirePopulation.get(0).getExperiments();
 
-        props = new PopulationProperties(this.trafficProfile, getMinDurations(experiments), getMaxUserCoverageScore(experiments), getPrioritySum(experiments));
+        initializePopulationProperties(experiments);
 
         Individual best = performLocalSearchOrSA(getBest(entirePopulation), iterations, simulated_annealing);
 
         long endTime = System.currentTimeMillis();
 
         saveStats(best, endTime - startTime, (simulated_annealing ? "SA" : "local search") + " restart", iterations);
+        checkpoints.finish();
     }
 
     @Override
@@ -988,15 +1800,67 @@ public class App implements ExperimentRunner{
         executeLocalSearchOrSARestart(trafficProfilePath, schedule, newExperiments, restartAt, discardExperiments, iterations, true);
     }
 
-    private void initialize(String trafficProfilePath) {
-        this.trafficProfile = ProfileGenerator.readFromCsv(trafficProfilePath);
+    @Override
+    public void executeParallelTempering(String trafficProfilePath, String experimentPath, int iterations, int numChains) {
+        initialize(trafficProfilePath);
 
-        if(this.trafficProfile == null) {
-            System.out.println("Could not read traffic profile");
-            System.exit(1);
+        if(numChains <= 0) {
+            console.println("Non-positive number of chains specified");
+            return;
         }
 
-        this.userGroups = getUserGroups(this.trafficProfile);
+        Set<Experiment> experiments = experimentReader.apply(experimentPath);
+
+        if(experiments == null)
+            return;
+
+        long startTime = System.currentTimeMillis();
+
+        List<Individual> entirePopulation = createStartPopulation(experiments);
+
+        initializePopulationProperties(experiments);
+
+        Individual bestStart = getBest(entirePopulation);
+
+        console.println("Start parallel tempering with " + numChains + " chains");
+        Individual best = performParallelTempering(bestStart, iterations, numChains);
+
+        long endTime = System.currentTimeMillis();
+
+        console.println("Best at start: " + bestStart.getFitness(props).toString());
+        saveStats(best, endTime - startTime, "parallel tempering", iterations);
+    }
+
+    void initialize(String trafficProfilePath) {
+        this.budget = RunBudget.fromConstants();
+        this.unsavedBest = null;
+        this.bestSoFarFitness = -1.0F;
+        this.checkpoints = new CheckpointWriter(Constants.CHECKPOINT_OUTPUT_PATH, Constants.CHECKPOINT_INTERVAL_SECONDS);
+
+        console.println("Random seed: " + RandomSource.getSeed());
+
+        this.trafficProfile = profileReader.apply(trafficProfilePath);
+
+        if(this.trafficProfile == null)
+            throw new IllegalStateException("Could not read traffic profile");
+
+        // durations, restart times, and the windows of sampling and seeding are counted in hours
+        if(this.trafficProfile.getSlotSeconds() != TrafficProfile.DEFAULT_SLOT_SECONDS)
+            throw new IllegalStateException("Traffic profile " + trafficProfilePath + " has time slots of " + this.trafficProfile.getSlotSeconds()
+                    + " seconds, only profiles with hourly time slots can be scheduled");
+
+        this.userGroups = this.trafficProfile.getUserGroups();
+
+        // user groups of the schedules created or read from now on get their ids from the profile
+        UserGroupRegistry.activate(this.trafficProfile.getRegistry());
+
+        // read after the traffic profile, whose registry gives the user groups the ids of the interrupted run
+        if(this.resumePath != null) {
+            this.resumed = Checkpoint.read(this.resumePath);
+
+            if(this.resumed == null)
+                throw new IllegalStateException("Could not read checkpoint");
+        }
 
         // clear "console"
         clearVisualRepresentation();
@@ -1013,6 +1877,49 @@ public class App implements ExperimentRunner{
         }
     }
 
+    @Override
+    public void setArguments(String[] args) {
+        this.arguments = args;
+    }
+
+    @Override
+    public void resumeFrom(String checkpointPath) {
+        this.resumePath = checkpointPath;
+    }
+
+    /**
+     * Restores the operator counters of the checkpoint the run resumes from. The counters of the individuals are not
+     * kept, as for populations read from JSON.
+     * @return population of the checkpoint, or its current individual for local search and SA
+     */
+    private List<Individual> resumeFromCheckpoint() {
+        crossoverCount.set(resumed.getCrossoverCount());
+        mutationCount.set(resumed.getMutationCount());
+        console.println("Note: Resume from checkpoint after " + resumed.getStep() + " steps");
+
+        List<Individual> population = resumed.getPopulation() != null ? resumed.getPopulation() : Arrays.asList(resumed.getCurrent(), resumed.getBest());
+        initializeCounters(population);
+        return population.subList(0, resumed.getPopulation() != null ? population.size() : 1);
+    }
+
+    /**
+     * @return length of the stats file once its buffered lines are written, which a resumed run truncates it to
+     */
+    private long flushStats(String path) {
+        statsWriter.flush();
+        return new File(path).length();
+    }
+
+    /**
+     * Opens the stats file of a resumed run for appending, without the lines written after the checkpoint.
+     */
+    private PrintWriter reopenStats(String path, long offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "rw")) {
+            file.setLength(Math.min(offset, file.length()));
+        }
+        return new PrintWriter(new BufferedWriter(new FileWriter(path, true)));
+    }
+
     private void initializeCounters(List<Individual> population) {
         population.forEach(individual -> {
             individual.setCrossoverCount(BigInteger.ZERO);
@@ -1,9 +1,24 @@
 package fenrir;
 
+import fenrir.misc.ProfileStore;
+import fenrir.misc.RandomSource;
 import org.apache.commons.cli.*;
 
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
 public class CLI {
-    public CLI() {}
+    // usage errors and the help, which the daemon streams to the client of a job
+    private final PrintStream console;
+
+    public CLI() {
+        this(System.out);
+    }
+
+    public CLI(PrintStream console) {
+        this.console = console;
+    }
 
     public void parseArgs(String[] args, ExperimentRunner runner) {
         Options options = new Options();
@@ -31,6 +46,28 @@ public class CLI {
 
         Option simulatedAnnealing = Option.builder("SA").hasArg().desc("simulated annealing with {numIterations} iterations").argName("numIterations").build();
 
+        Option multiStartOption = Option.builder("multiStart").desc("local search: hill-climb every individual of the initial population concurrently").build();
+
+        Option chainsOption = Option.builder("chains").hasArg().desc("simulated annealing: parallel tempering with {numChains} chains").argName("numChains").build();
+
+        Option islandsOption = Option.builder("islands").hasArg().desc("island model genetic algorithm with {numIslands} islands").argName("numIslands").build();
+
+        Option steadyStateOption = Option.builder("steadyState").hasArg().desc("steady-state genetic algorithm with {numEvaluations} evaluations").argName("numEvaluations").build();
+
+        Option seedOption = Option.builder("seed").hasArg().desc("master seed of the random number generators").argName("seed").build();
+
+        Option timeBudgetOption = Option.builder("timeBudget").hasArg().desc("stop after {seconds} seconds of wall-clock time").argName("seconds").build();
+
+        Option daemonOption = Option.builder("daemon").hasArg().desc("run as daemon accepting jobs on http://localhost:{port}/jobs").argName("port").build();
+
+        Option convertOption = Option.builder("convert").numberOfArgs(2).desc("convert a population, schedule, or experiments file between JSON and the binary format (.bin)").argName("input output").build();
+
+        Option compileProfileOption = Option.builder("compileProfile").numberOfArgs(2).desc("compile a traffic profile (.csv) into a profile store, which is mapped into memory when read").argName("input output").build();
+
+        Option resumeOption = Option.builder("resume").longOpt("resume").desc("resume the run of the last checkpoint").build();
+
+        Option patienceOption = Option.builder("patience").hasArg().desc("stop after {steps} generations, iterations, evaluations, or samples without improvement").argName("steps").build();
+
         options.addOption(experimentOption);
         options.addOption(restartOption);
         options.addOption(discardOption);
@@ -38,7 +75,18 @@ public class CLI {
         options.addOption(sampleOption);
         options.addOption(randomSampling);
         options.addOption(localSearch);
+        options.addOption(multiStartOption);
         options.addOption(simulatedAnnealing);
+        options.addOption(chainsOption);
+        options.addOption(islandsOption);
+        options.addOption(steadyStateOption);
+        options.addOption(seedOption);
+        options.addOption(timeBudgetOption);
+        options.addOption(patienceOption);
+        options.addOption(resumeOption);
+        options.addOption(convertOption);
+        options.addOption(compileProfileOption);
+        options.addOption(daemonOption);
 
         CommandLineParser parser = new DefaultParser();
         HelpFormatter formatter = new HelpFormatter();
@@ -46,13 +94,59 @@ public class CLI {
         try {
             CommandLine cmd = parser.parse(options, args);
 
+            if(cmd.hasOption("daemon")) {
+                new SchedulerDaemon(Integer.parseInt(cmd.getOptionValue("daemon"))).start();
+                return;
+            }
+
+            if(cmd.hasOption("convert")) {
+                String[] files = cmd.getOptionValues("convert");
+                App.convert(files[0], files[1]);
+                return;
+            }
+
+            if(cmd.hasOption("compileProfile")) {
+                String[] files = cmd.getOptionValues("compileProfile");
+                ProfileStore.compile(files[0], files[1]);
+                return;
+            }
+
+            if(cmd.hasOption("resume")) {
+                Checkpoint checkpoint = Checkpoint.readHeader(Constants.CHECKPOINT_OUTPUT_PATH);
+                if(checkpoint == null)
+                    return;
+
+                console.println("Resume " + String.join(" ", checkpoint.getArguments()));
+                RandomSource.setSeed(checkpoint.getSeed());
+                runner.resumeFrom(Constants.CHECKPOINT_OUTPUT_PATH);
+                parseArgs(checkpoint.getArguments(), runner);
+                return;
+            }
+
+            runner.setArguments(args);
+
+            if(cmd.hasOption("seed"))
+                RandomSource.setSeed(Long.parseLong(cmd.getOptionValue("seed")));
+
+            if(cmd.hasOption("timeBudget"))
+                Constants.TIME_BUDGET_SECONDS = Integer.parseInt(cmd.getOptionValue("timeBudget"));
+
+            if(cmd.hasOption("patience"))
+                Constants.PATIENCE = Integer.parseInt(cmd.getOptionValue("patience"));
+
             String profilePath = null;
             if(cmd.hasOption("t"))
                 profilePath = cmd.getOptionValue("t");
             else
                 profilePath = Constants.DEFAULT_PROFILE;
 
-            if(cmd.hasOption("e") && !cmd.hasOption("r") && !cmd.hasOption("n") && !cmd.hasOption("randomSampling") && !cmd.hasOption("localSearch") && !cmd.hasOption("SA")) {
+            if(cmd.hasOption("islands") && cmd.hasOption("e") && !cmd.hasOption("r") && !cmd.hasOption("n") && !cmd.hasOption("randomSampling") && !cmd.hasOption("localSearch") && !cmd.hasOption("SA")) {
+                runner.executeIslandGenetic(profilePath, cmd.getOptionValue("e"), Integer.parseInt(cmd.getOptionValue("islands")));
+                return;
+            }else if(cmd.hasOption("steadyState") && cmd.hasOption("e") && !cmd.hasOption("r") && !cmd.hasOption("n") && !cmd.hasOption("randomSampling") && !cmd.hasOption("localSearch") && !cmd.hasOption("SA")) {
+                runner.executeSteadyStateGenetic(profilePath, cmd.getOptionValue("e"), Integer.parseInt(cmd.getOptionValue("steadyState")));
+                return;
+            }else if(cmd.hasOption("e") && !cmd.hasOption("r") && !cmd.hasOption("n") && !cmd.hasOption("randomSampling") && !cmd.hasOption("localSearch") && !cmd.hasOption("SA")) {
                 runner.executeGenetic(profilePath, cmd.getOptionValue("e"));
                 return;
             }else if(cmd.hasOption("n") && !cmd.hasOption("r") && !cmd.hasOption("randomSampling") && !cmd.hasOption("localSearch") && !cmd.hasOption("SA")) {
@@ -89,21 +183,35 @@ public class CLI {
                 int sampleSize = Integer.parseInt(cmd.getOptionValue("randomSampling"));
                 runner.executeRandomSampling(profilePath, cmd.getOptionValue("e"), sampleSize);
                 return;
+            }else if(cmd.hasOption("localSearch") && cmd.hasOption("multiStart") && cmd.hasOption("e") && !cmd.hasOption("SA")) {
+                int iterations = Integer.parseInt(cmd.getOptionValue("localSearch"));
+                runner.executeMultiStartLocalSearch(profilePath, cmd.getOptionValue("e"), iterations);
+                return;
             }else if(cmd.hasOption("localSearch") && cmd.hasOption("e") && !cmd.hasOption("SA")) {
                 int iterations = Integer.parseInt(cmd.getOptionValue("localSearch"));
                 runner.executeLocalSearch(profilePath, cmd.getOptionValue("e"), iterations);
                 return;
+            }else if(cmd.hasOption("SA") && cmd.hasOption("chains") && cmd.hasOption("e")) {
+                int iterations = Integer.parseInt(cmd.getOptionValue("SA"));
+                runner.executeParallelTempering(profilePath, cmd.getOptionValue("e"), iterations, Integer.parseInt(cmd.getOptionValue("chains")));
+                return;
             }else if(cmd.hasOption("SA") && cmd.hasOption("e")) {
                 int iterations = Integer.parseInt(cmd.getOptionValue("SA"));
                 runner.executeSA(profilePath, cmd.getOptionValue("e"), iterations);
                 return;
             }
-            System.out.println("Wrong usage");
-            formatter.printHelp("fenrir", options);
+            console.println("Wrong usage");
+            printHelp(formatter, options);
 
-        } catch (ParseException | NumberFormatException e) {
-            System.out.println(e.getMessage());
-            formatter.printHelp("fenrir", options);
+        } catch (ParseException | NumberFormatException | IOException e) {
+            console.println(e.getMessage());
+            printHelp(formatter, options);
         }
     }
+
+    private void printHelp(HelpFormatter formatter, Options options) {
+        PrintWriter writer = new PrintWriter(console);
+        formatter.printHelp(writer, formatter.getWidth(), "fenrir", null, options, formatter.getLeftPadding(), formatter.getDescPadding(), null);
+        writer.flush();
+    }
 }
@@ -0,0 +1,229 @@
+package fenrir;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import fenrir.genetic.BinaryFormat;
+import fenrir.genetic.Individual;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+/**
+ * State of a run of the genetic algorithm, local search, or SA after a generation or iteration, from which the run is
+ * continued with -resume. Together with the master seed, the generation determines all random generators of the GA,
+ * whereas local search and SA continue their generator from its saved state. The command line arguments of the run are
+ * kept, such that the run is resumed with the same algorithm and input files.
+ * Checkpoints are written in the binary format if their path has the extension .bin, and as JSON without indentation
+ * otherwise, regardless of COMPACT_JSON, since they are read by the program only. Both are read alike.
+ */
+public class Checkpoint {
+    private final String[] arguments;
+    private final long seed;
+    private final int step;
+    private final long statsOffset;
+    private final long crossoverCount;
+    private final long mutationCount;
+    // order in which the operators visit the experiments
+    private final List<Experiment> experiments;
+
+    // genetic algorithm
+    private final List<Individual> population;
+
+    // local search and SA
+    private final Individual current;
+    private final Individual best;
+    private final double temperature;
+    private final long randomState;
+    private final List<Double> increases;
+
+    private Checkpoint(String[] arguments, long seed, int step, long statsOffset, long crossoverCount, long mutationCount, List<Experiment> experiments,
+                       List<Individual> population, Individual current, Individual best, double temperature, long randomState, List<Double> increases) {
+        this.arguments = arguments;
+        this.seed = seed;
+        this.step = step;
+        this.statsOffset = statsOffset;
+        this.crossoverCount = crossoverCount;
+        this.mutationCount = mutationCount;
+        this.experiments = experiments;
+        this.population = population;
+        this.current = current;
+        this.best = best;
+        this.temperature = temperature;
+        this.randomState = randomState;
+        this.increases = increases;
+    }
+
+    /**
+     * @param population Population after the generation, whose individuals must not be modified afterwards
+     */
+    public static Checkpoint ofGeneration(String[] arguments, long seed, int generation, long statsOffset, long crossoverCount, long mutationCount,
+                                          List<Experiment> experiments, List<Individual> population) {
+        return new Checkpoint(arguments, seed, generation, statsOffset, crossoverCount, mutationCount, experiments, population, null, null, 0.0, 0L, null);
+    }
+
+    /**
+     * @param current Copy of the current individual after the iteration
+     * @param best Best individual so far, which must not be modified afterwards
+     */
+    public static Checkpoint ofIteration(String[] arguments, long seed, int iteration, long statsOffset, long crossoverCount, long mutationCount, List<Experiment> experiments,
+                                         Individual current, Individual best, double temperature, long randomState, List<Double> increases) {
+        return new Checkpoint(arguments, seed, iteration, statsOffset, crossoverCount, mutationCount, experiments, null, current, best, temperature, randomState, increases);
+    }
+
+    public String[] getArguments() {
+        return arguments;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return number of generations or iterations completed
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return length of the stats file when the checkpoint was taken
+     */
+    public long getStatsOffset() {
+        return statsOffset;
+    }
+
+    public long getCrossoverCount() {
+        return crossoverCount;
+    }
+
+    public long getMutationCount() {
+        return mutationCount;
+    }
+
+    public List<Experiment> getExperiments() {
+        return experiments;
+    }
+
+    public List<Individual> getPopulation() {
+        return population;
+    }
+
+    public Individual getCurrent() {
+        return current;
+    }
+
+    public Individual getBest() {
+        return best;
+    }
+
+    public double getTemperature() {
+        return temperature;
+    }
+
+    public long getRandomState() {
+        return randomState;
+    }
+
+    public List<Double> getIncreases() {
+        return increases;
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file next to the given path and renames it afterwards, such that the path
+     * always holds a complete checkpoint.
+     */
+    public void write(String path) {
+        Path target = Paths.get(path);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        try {
+            if(BinaryFormat.isBinaryPath(path)) {
+                BinaryFormat.writeCheckpoint(this, temp.toString());
+            }else {
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8))) {
+                    Gson gson = App.getCompactGson();
+                    gson.toJson(this, writer);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    public static Checkpoint read(String path) {
+        if(path == null)
+            return null;
+
+        if(BinaryFormat.isBinary(path)) {
+            try {
+                return BinaryFormat.readCheckpoint(path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+                return null;
+            }
+        }
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(new FileInputStream(path)), StandardCharsets.UTF_8))) {
+            Gson gson = App.getGson();
+            return gson.fromJson(reader, Checkpoint.class);
+        } catch (IOException | JsonParseException e) {
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Reads only the arguments and the seed of a checkpoint, which are written before the individuals. The individuals
+     * must be read after the traffic profile, such that their user groups get the same ids as in the interrupted run.
+     * @return checkpoint without state
+     */
+    public static Checkpoint readHeader(String path) {
+        if(path == null)
+            return null;
+
+        if(BinaryFormat.isBinary(path)) {
+            try {
+                return BinaryFormat.readCheckpointHeader(path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+                return null;
+            }
+        }
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new BufferedInputStream(new FileInputStream(path)), StandardCharsets.UTF_8))) {
+            Gson gson = App.getGson();
+            String[] arguments = null;
+            Long seed = null;
+
+            reader.beginObject();
+            while(reader.hasNext() && (arguments == null || seed == null)) {
+                String name = reader.nextName();
+                if(name.equals("arguments"))
+                    arguments = gson.fromJson(reader, String[].class);
+                else if(name.equals("seed"))
+                    seed = reader.nextLong();
+                else
+                    reader.skipValue();
+            }
+
+            if(arguments == null || seed == null) {
+                System.out.println("Invalid checkpoint " + path);
+                return null;
+            }
+            return new Checkpoint(arguments, seed, 0, 0L, 0L, 0L, null, null, null, null, 0.0, 0L, null);
+        } catch (IOException | JsonParseException | IllegalStateException e) {
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+}
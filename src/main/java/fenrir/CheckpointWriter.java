@@ -0,0 +1,78 @@
+package fenrir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes checkpoints of a run on a background thread, at most one every given number of seconds; non-positive intervals
+ * disable checkpoints. The state is captured by the caller, such that the run continues while the checkpoint is
+ * written. Checkpoints which become due while the previous one is still written are skipped.
+ */
+public class CheckpointWriter {
+    private final String path;
+    private final long interval;
+
+    private final AtomicBoolean writing = new AtomicBoolean(false);
+    private ExecutorService executor = null;
+    private long lastCheckpoint = System.currentTimeMillis();
+
+    public CheckpointWriter(String path, int intervalSeconds) {
+        this.path = path;
+        this.interval = TimeUnit.SECONDS.toMillis(Math.max(0, intervalSeconds));
+    }
+
+    public boolean isDue() {
+        return interval > 0 && System.currentTimeMillis() - lastCheckpoint >= interval && !writing.get();
+    }
+
+    public void write(Checkpoint checkpoint) {
+        if(executor == null) {
+            executor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "checkpoint-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        lastCheckpoint = System.currentTimeMillis();
+        writing.set(true);
+        executor.execute(() -> {
+            try {
+                checkpoint.write(path);
+            } finally {
+                writing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Waits for the checkpoint being written, if any, and removes the checkpoint file once the run is complete. The file
+     * is removed even if this run wrote no checkpoint, as it holds the state of the run that was resumed.
+     */
+    public void finish() {
+        if(executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            executor = null;
+        }
+
+        if(path == null)
+            return;
+
+        try {
+            Files.deleteIfExists(Paths.get(path));
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -3,8 +3,13 @@ package fenrir;
 public class Constants {
     public static int NUM_GENERATIONS;
     public static int POPULATION_SIZE;
+    public static int SAMPLING_MAX_ATTEMPTS;
+    public static String SEEDING_TYPES;
+    public static float SEEDING_SHARE;
 
     public static float TARGET_FITNESS;
+    public static int TIME_BUDGET_SECONDS;
+    public static int PATIENCE;
     public static float CROSSOVER_PROBABILITY;
     public static float MUTATION_PROBABILITY;
     public static float MUTATION_SCOPE;
@@ -12,9 +17,16 @@ public class Constants {
     public static int MUTATION_MOVE_BY_HOURS;
     public static int MUTATION_SHORTEN_BY_HOURS;
     public static int MUTATION_EXTEND_BY_HOURS;
+    public static int MUTATION_REPAIR_ATTEMPTS;
 
+    public static String SELECTION_TYPE;
     public static int TOURNAMENT_SIZE;
     public static int ELITISM_SIZE;
+
+    public static int ISLAND_MIGRATION_INTERVAL;
+    public static int ISLAND_MIGRATION_SIZE;
+    public static String ISLAND_TOPOLOGY;
+
     public static float MAX_TRAFFIC_ADJUSTMENT;
     public static float MIN_TRAFFIC_ADJUSTMENT;
 
@@ -22,8 +34,12 @@ public class Constants {
     public static float FITNESS_USERGROUP_WEIGHT;
     public static float FITNESS_STARTSLOT_WEIGHT;
 
+    public static float MULTI_START_CUT_RATIO;
+
     public static float SA_STARTING_TEMP;
     public static float SA_TEMP_DECREASE;
+    public static int PT_SWAP_INTERVAL;
+    public static float PT_MIN_TEMP;
 
     public static String DEFAULT_PROFILE;
 
@@ -34,6 +50,9 @@ public class Constants {
     public static String SCHEDULE_OUTPUT_PATH;
     public static String EXPERIMENT_OUTPUT_PATH;
     public static String POPULATION_OUTPUT_PATH;
+    public static String CHECKPOINT_OUTPUT_PATH;
+    public static int CHECKPOINT_INTERVAL_SECONDS;
+    public static boolean COMPACT_JSON;
 
     public static String RESULT_LOG;
 
@@ -111,7 +111,9 @@ public class Experiment {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getId(), getType(), getTargetService(), getMinDuration(), getRequiredTotalTraffic(), getPriority());
+        // the type is hashed by name, since the hash code of an enum differs between runs, and so would the iteration
+        // order of maps of experiments, e.g., the order in which the fitness of schedules is summed up
+        return Objects.hash(getId(), getType() == null ? null : getType().name(), getTargetService(), getMinDuration(), getRequiredTotalTraffic(), getPriority());
     }
 
     @Override
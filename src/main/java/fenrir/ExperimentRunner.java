@@ -1,8 +1,13 @@
 package fenrir;
 
 public interface ExperimentRunner {
+    void setArguments(String[] args);
+    void resumeFrom(String checkpointPath);
+
     void executeGenetic(String trafficProfile, int numExperiments);
     void executeGenetic(String trafficProfile, String experiments);
+    void executeIslandGenetic(String trafficProfile, String experiments, int numIslands);
+    void executeSteadyStateGenetic(String trafficProfile, String experiments, int numEvaluations);
 
     void executeGeneticRestart(String trafficProfile, String schedule, String newExperiments, int restartAt, String discardExperiments);
 
@@ -10,8 +15,10 @@ public interface ExperimentRunner {
     void executeRandomSamplingRestart(String trafficProfile, String schedule, String newExperiments, int restartAt, String discardExperiments, int sampleSize);
 
     void executeLocalSearch(String trafficProfile, String experiments, int iterations);
+    void executeMultiStartLocalSearch(String trafficProfile, String experiments, int iterations);
     void executeLocalSearchRestart(String trafficProfile, String schedule, String newExperiments, int restartAt, String discardExperiments, int iterations);
 
     void executeSA(String trafficProfilePath, String experiments, int iterations);
     void executeSARestart(String trafficProfilePath, String schedule, String newExperiments, int restartAt, String discardExperiments, int iterations);
+    void executeParallelTempering(String trafficProfilePath, String experiments, int iterations, int numChains);
 }
@@ -10,9 +10,8 @@ public enum ExperimentType {
 
     private static final List<ExperimentType> VALUES = Collections.unmodifiableList(Arrays.asList(values()));
     private static final int SIZE = VALUES.size();
-    private static final Random RANDOM = new Random();
 
-    public static ExperimentType randomExperimentType()  {
-        return VALUES.get(RANDOM.nextInt(SIZE));
+    public static ExperimentType randomExperimentType(Random rand)  {
+        return VALUES.get(rand.nextInt(SIZE));
     }
 }
@@ -0,0 +1,120 @@
+package fenrir;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes experiments and gradual experiments in the JSON shape of the experiment files, i.e., with a field
+ * "baseType" naming the class, followed by the fields of the class. Null fields are omitted. Experiments without
+ * "baseType" are read as plain experiments.
+ */
+public class ExperimentTypeAdapter extends TypeAdapter<Experiment> {
+    private static final String EXPERIMENT = "Experiment";
+    private static final String GRADUAL_EXPERIMENT = "GradualExperiment";
+
+    @Override
+    public void write(JsonWriter out, Experiment e) throws IOException {
+        if(e == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("baseType").value(e.isGradual() ? GRADUAL_EXPERIMENT : EXPERIMENT);
+        if(e.isGradual())
+            out.name("startTraffic").value(((GradualExperiment) e).getStartTraffic());
+        out.name("id").value(e.getId());
+        if(e.getType() != null)
+            out.name("type").value(e.getType().name());
+        if(e.getTargetService() != null)
+            out.name("targetService").value(e.getTargetService());
+        out.name("minDuration").value(e.getMinDuration());
+        out.name("requiredTotalTraffic").value(e.getRequiredTotalTraffic());
+        out.name("priority").value(e.getPriority());
+
+        if(e.getPreferredUserGroup() != null) {
+            out.name("preferredUserGroup").beginArray();
+            for(String group : e.getPreferredUserGroup())
+                out.value(group);
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Experiment read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String baseType = EXPERIMENT;
+        float startTraffic = 0.0F;
+        int id = 0;
+        ExperimentType type = null;
+        String targetService = null;
+        int minDuration = 0;
+        long requiredTotalTraffic = 0L;
+        int priority = 0;
+        List<String> preferredUserGroup = null;
+
+        in.beginObject();
+        while(in.hasNext()) {
+            String name = in.nextName();
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+
+            switch(name) {
+                case "baseType":
+                    baseType = in.nextString();
+                    break;
+                case "startTraffic":
+                    startTraffic = (float) in.nextDouble();
+                    break;
+                case "id":
+                    id = in.nextInt();
+                    break;
+                case "type":
+                    type = ExperimentType.valueOf(in.nextString());
+                    break;
+                case "targetService":
+                    targetService = in.nextString();
+                    break;
+                case "minDuration":
+                    minDuration = in.nextInt();
+                    break;
+                case "requiredTotalTraffic":
+                    requiredTotalTraffic = in.nextLong();
+                    break;
+                case "priority":
+                    priority = in.nextInt();
+                    break;
+                case "preferredUserGroup":
+                    preferredUserGroup = new ArrayList<>();
+                    in.beginArray();
+                    while(in.hasNext())
+                        preferredUserGroup.add(in.nextString());
+                    in.endArray();
+                    break;
+                default:
+                    in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if(baseType.equals(GRADUAL_EXPERIMENT))
+            return new GradualExperiment(id, type, targetService, minDuration, requiredTotalTraffic, priority, startTraffic, preferredUserGroup);
+        if(!baseType.equals(EXPERIMENT))
+            throw new JsonParseException("Unknown experiment type '" + baseType + "' at " + in.getPath());
+        return new Experiment(id, type, targetService, minDuration, requiredTotalTraffic, priority, preferredUserGroup);
+    }
+}
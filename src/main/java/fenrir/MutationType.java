@@ -1,6 +1,5 @@
 package fenrir;
 
-import java.security.SecureRandom;
 import java.util.*;
 
 public enum MutationType {
@@ -18,13 +17,12 @@ public enum MutationType {
 
     private static final List<MutationType> VALUES = Collections.unmodifiableList(Arrays.asList(values()));
     private static final int SIZE = VALUES.size();
-    private static final SecureRandom RANDOM = new SecureRandom();
     private static final List<Integer> WEIGHTS = Arrays.asList(40, 10, 5, 10, 5, 10, 5, 10, 5, 0, 0);
 
-    public static MutationType randomMutationType()  {
+    public static MutationType randomMutationType(Random rand)  {
         int weight_sum = WEIGHTS.stream().mapToInt(Integer::intValue).sum();
 
-        double value = RANDOM.nextDouble() * weight_sum;
+        double value = rand.nextDouble() * weight_sum;
 
         for(int i=0; i < SIZE; i++) {
             value -= WEIGHTS.get(i);
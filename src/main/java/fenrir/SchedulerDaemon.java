@@ -0,0 +1,195 @@
+package fenrir;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import fenrir.genetic.TrafficProfile;
+import fenrir.misc.ProfileGenerator;
+import fenrir.misc.RandomSource;
+import fenrir.misc.ResourceCache;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs scheduling jobs in one long-running JVM, such that traffic profiles and experiments are parsed only once and
+ * the code stays warm across jobs. A job is started by posting the command line arguments of a run to /jobs on
+ * localhost, e.g., "-e experiments.json -SA 10000"; paths are relative to the working directory of the daemon. The
+ * console output of the run is streamed back while it runs, and the resulting schedule can be fetched from
+ * /jobs/{id}/schedule, as given by the Location header of the response.
+ * Since the response starts before the job runs, its status is always 200; the outcome of the job is given by the last
+ * line of the response instead, which starts with "Job {id} finished" or "Job {id} failed". A job fails if the run
+ * throws or writes no schedule (e.g., for wrong arguments). The schedule of a failed job is answered with 500 and the
+ * error, that of a job not finished yet with 409, and that of an unknown job with 404.
+ * Jobs share the configuration and the output files, hence they run one after another. A job writes its schedule to
+ * a file of its own, which replaces the schedule file once the job has finished. The configuration is loaded anew for
+ * every job, such that changes of fenrir.properties apply to the next job. Messages of code shared by all runs, e.g.,
+ * the construction of populations and the file readers and writers, are written to the console of the daemon.
+ */
+public class SchedulerDaemon {
+    private static final int MAX_JOBS = 16;
+    private static final Pattern SCHEDULE_PATH = Pattern.compile("/jobs/(\\d+)/schedule");
+
+    private final int port;
+
+    private final ResourceCache<TrafficProfile> profiles = new ResourceCache<>(ProfileGenerator::readTrafficProfile);
+    private final ResourceCache<Set<Experiment>> experiments = new ResourceCache<>(App::readExperimentsFromJson);
+
+    private final AtomicInteger jobIds = new AtomicInteger(0);
+    private final Object jobLock = new Object();
+
+    // job id : state of the most recent jobs
+    private final Map<Integer, Job> jobs = Collections.synchronizedMap(new LinkedHashMap<Integer, Job>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Job> eldest) {
+            return size() > MAX_JOBS;
+        }
+    });
+
+    public SchedulerDaemon(int port) {
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/jobs", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        System.out.println("Scheduler daemon listening on http://localhost:" + server.getAddress().getPort() + "/jobs");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            Matcher schedule = SCHEDULE_PATH.matcher(path);
+
+            if(exchange.getRequestMethod().equals("POST") && path.equals("/jobs"))
+                runJob(exchange);
+            else if(exchange.getRequestMethod().equals("GET") && schedule.matches())
+                sendSchedule(exchange, Integer.parseInt(schedule.group(1)));
+            else
+                send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void runJob(HttpExchange exchange) throws IOException {
+        String[] args = readArguments(exchange.getRequestBody());
+        if(args.length == 0 || Arrays.asList(args).contains("-daemon")) {
+            send(exchange, 400, "text/plain", "Expected the command line arguments of a run".getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+
+        int id = jobIds.incrementAndGet();
+        Job job = new Job();
+        jobs.put(id, job);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.getResponseHeaders().set("Location", "/jobs/" + id + "/schedule");
+        exchange.sendResponseHeaders(200, 0);
+
+        PrintStream progress = new PrintStream(exchange.getResponseBody(), true, "UTF-8");
+        progress.println("Job " + id + ": " + String.join(" ", args));
+
+        synchronized (jobLock) {
+            long start = System.currentTimeMillis();
+            Path schedulePath = null;
+            Path jobSchedulePath = null;
+
+            String error = null;
+            try {
+                // every job gets a new seed, unless it specifies one
+                RandomSource.setSeed(new SecureRandom().nextLong());
+
+                App app = new App(profiles::get, path -> {
+                    Set<Experiment> cached = experiments.get(path);
+                    return cached == null ? null : new LinkedHashSet<>(cached);
+                }, progress);
+
+                // the run writes its schedule to a file of its own, such that the schedule of an earlier job cannot be
+                // taken for the one of this job
+                schedulePath = Paths.get(Constants.SCHEDULE_OUTPUT_PATH);
+                jobSchedulePath = schedulePath.resolveSibling(schedulePath.getFileName() + ".job" + id);
+                Files.deleteIfExists(jobSchedulePath);
+                Constants.SCHEDULE_OUTPUT_PATH = jobSchedulePath.toString();
+
+                new CLI(progress).parseArgs(args, app);
+            } catch (RuntimeException | IOException e) {
+                progress.println(e.getMessage());
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+            } finally {
+                if(schedulePath != null)
+                    Constants.SCHEDULE_OUTPUT_PATH = schedulePath.toString();
+            }
+
+            if(error == null && Files.exists(jobSchedulePath)) {
+                try {
+                    job.schedule = Files.readAllBytes(jobSchedulePath);
+                    Files.move(jobSchedulePath, schedulePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    error = e.getMessage();
+                }
+            }else if(error == null) {
+                error = "no schedule was written";
+            }
+            job.error = error;
+            job.finished = true;
+
+            String status = "Job " + id + (error == null ? " finished" : " failed") + " after " + (System.currentTimeMillis() - start) / 1000 + " sec" + (error == null ? "" : ": " + error);
+            progress.println(status);
+            System.out.println(status + " (" + profiles.size() + " profiles and " + experiments.size() + " experiment files cached)");
+        }
+        progress.flush();
+    }
+
+    private void sendSchedule(HttpExchange exchange, int id) throws IOException {
+        Job job = jobs.get(id);
+        if(job == null)
+            send(exchange, 404, "text/plain", ("Unknown job " + id).getBytes(StandardCharsets.UTF_8));
+        else if(!job.finished)
+            send(exchange, 409, "text/plain", ("Job " + id + " has not finished yet").getBytes(StandardCharsets.UTF_8));
+        else if(job.error != null)
+            send(exchange, 500, "text/plain", ("Job " + id + " failed: " + job.error).getBytes(StandardCharsets.UTF_8));
+        else
+            send(exchange, 200, "application/json", job.schedule);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * @return arguments separated by whitespace
+     */
+    private static String[] readArguments(InputStream body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] chunk = new byte[4096];
+        for(int read = body.read(chunk); read != -1; read = body.read(chunk))
+            buffer.write(chunk, 0, read);
+
+        String text = new String(buffer.toByteArray(), StandardCharsets.UTF_8).trim();
+        return text.isEmpty() ? new String[0] : text.split("\\s+");
+    }
+
+    private static class Job {
+        // set before finished
+        private volatile byte[] schedule = null;
+        private volatile String error = null;
+        private volatile boolean finished = false;
+    }
+}
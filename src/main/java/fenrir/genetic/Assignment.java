@@ -1,22 +1,38 @@
 package fenrir.genetic;
 
+import com.google.gson.annotations.JsonAdapter;
 import fenrir.Constants;
 
-import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.Objects;
+import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * Shares of traffic used per user group at one hour. User groups are addressed by their id in the UserGroupRegistry of
+ * the traffic profile: the ids of the used user groups are kept sorted in one array and their shares at the same index
+ * in another, such that an assignment takes memory for the user groups it uses only, regardless of how many user
+ * groups the profile has. getTrafficAssignment() offers a map view by user group name.
+ */
+@JsonAdapter(AssignmentTypeAdapter.class)
 public class Assignment {
+    private static final int[] NO_GROUPS = new int[0];
+    private static final float[] NO_SHARES = new float[0];
+
     private int hour;
 
-    private HashMap<String, Float> trafficAssignment;
+    // ids of the used user groups in ascending order, never modified in place
+    private int[] groups = NO_GROUPS;
+
+    // index : share of traffic (0..1) of the user group groups[index]
+    private float[] shares = NO_SHARES;
 
-    private static final SecureRandom rand = new SecureRandom();
+    // schedule whose cached scores and user group runs depend on this assignment
+    private transient Schedule owner;
 
-    public Assignment(int hour, HashMap<String, Float> trafficAssignment) {
+    private transient Map<String, Float> view;
+
+    public Assignment(int hour, Map<String, Float> trafficAssignment) {
         this.hour = hour;
-        this.trafficAssignment = trafficAssignment;
+        trafficAssignment.forEach(this::setTraffic);
     }
 
     public Assignment() {}
@@ -27,24 +43,170 @@ public class Assignment {
 
     public void setHour(int hour) {
         this.hour = hour;
+        modified();
+    }
+
+    /**
+     * @return map view of the shares of traffic by user group name, changes are written through
+     */
+    public Map<String, Float> getTrafficAssignment() {
+        if(view == null)
+            view = new TrafficView();
+        return view;
+    }
+
+    public void setTrafficAssignment(Map<String, Float> trafficAssignment) {
+        this.groups = NO_GROUPS;
+        this.shares = NO_SHARES;
+        trafficAssignment.forEach(this::setTraffic);
+        modified();
+    }
+
+    /**
+     * @return number of used user groups
+     */
+    public int getNumGroups() {
+        return groups.length;
+    }
+
+    /**
+     * Used user groups are iterated by index: for(int i = 0; i < a.getNumGroups(); i++) a.getGroupIdAt(i) ...
+     * @param index Index of the used user group (0..getNumGroups() - 1), in ascending order of the ids
+     * @return id of the user group
+     */
+    public int getGroupIdAt(int index) {
+        return groups[index];
+    }
+
+    /**
+     * @param index Index of the used user group (0..getNumGroups() - 1)
+     * @return share of traffic of the user group
+     */
+    public float getShareAt(int index) {
+        return shares[index];
+    }
+
+    /**
+     * @return ids of the used user groups
+     */
+    public BitSet getGroups() {
+        BitSet bits = new BitSet();
+        for(int id : groups)
+            bits.set(id);
+        return bits;
+    }
+
+    /**
+     * @return true, if both assignments use the same user groups, regardless of their shares
+     */
+    public boolean hasSameGroups(Assignment other) {
+        return Arrays.equals(groups, other.groups);
+    }
+
+    public boolean hasGroup(int groupId) {
+        return Arrays.binarySearch(groups, groupId) >= 0;
+    }
+
+    /**
+     * @param groupId Id of the user group
+     * @return share of traffic of the user group, or 0 if the user group is not used
+     */
+    public float getTraffic(int groupId) {
+        int index = Arrays.binarySearch(groups, groupId);
+        return index >= 0 ? shares[index] : 0.0F;
+    }
+
+    /**
+     * @return largest share of traffic of all used user groups, or 0 if no user group is used
+     */
+    public float getMaxTraffic() {
+        float max = 0.0F;
+        for(float share : shares)
+            max = Math.max(max, share);
+        return max;
+    }
+
+    /**
+     * Sets the share of traffic used of a user group. Prefer this over modifying getTrafficAssignment() directly,
+     * as it invalidates the cached scores of the owning schedule.
+     * @param userGroup User group, which has to be registered already, e.g., by the traffic profile
+     * @param share Share of the user group's traffic (0..1)
+     */
+    public void setTraffic(String userGroup, float share) {
+        setTraffic(getRegisteredId(userGroup), share);
+    }
+
+    public void setTraffic(int groupId, float share) {
+        if(groupId < 0)
+            throw new IllegalArgumentException("Invalid user group id " + groupId);
+
+        int index = Arrays.binarySearch(groups, groupId);
+        if(index < 0) {
+            // insert at the position keeping the ids sorted
+            index = -index - 1;
+            int[] newGroups = new int[groups.length + 1];
+            float[] newShares = new float[groups.length + 1];
+            System.arraycopy(groups, 0, newGroups, 0, index);
+            System.arraycopy(shares, 0, newShares, 0, index);
+            System.arraycopy(groups, index, newGroups, index + 1, groups.length - index);
+            System.arraycopy(shares, index, newShares, index + 1, groups.length - index);
+            newGroups[index] = groupId;
+            groups = newGroups;
+            shares = newShares;
+        }
+
+        shares[index] = share;
+        modified();
     }
 
-    public HashMap<String, Float> getTrafficAssignment() {
-        return trafficAssignment;
+    public void removeGroup(int groupId) {
+        int index = Arrays.binarySearch(groups, groupId);
+        if(index < 0)
+            return;
+
+        if(groups.length == 1) {
+            groups = NO_GROUPS;
+            shares = NO_SHARES;
+        }else {
+            int[] newGroups = new int[groups.length - 1];
+            float[] newShares = new float[groups.length - 1];
+            System.arraycopy(groups, 0, newGroups, 0, index);
+            System.arraycopy(shares, 0, newShares, 0, index);
+            System.arraycopy(groups, index + 1, newGroups, index, newGroups.length - index);
+            System.arraycopy(shares, index + 1, newShares, index, newShares.length - index);
+            groups = newGroups;
+            shares = newShares;
+        }
+        modified();
+    }
+
+    /**
+     * Names are only registered by traffic profiles and files naming user groups, such that a typo does not take up
+     * an id of the profile.
+     */
+    private static int getRegisteredId(String userGroup) {
+        int id = UserGroupRegistry.findId(userGroup);
+        if(id < 0)
+            throw new IllegalArgumentException("Unknown user group '" + userGroup + "'");
+        return id;
     }
 
-    public void setTrafficAssignment(HashMap<String, Float> trafficAssignment) {
-        this.trafficAssignment = trafficAssignment;
+    void setOwner(Schedule owner) {
+        this.owner = owner;
+    }
+
+    private void modified() {
+        if(owner != null)
+            owner.invalidateCaches();
     }
 
     public Assignment copyAssignment() {
         Assignment n = new Assignment();
 
-        n.setHour(this.getHour());
-        n.setTrafficAssignment(new HashMap<>());
-
-        this.getTrafficAssignment().entrySet().stream()
-                .forEach(entry -> n.getTrafficAssignment().put(entry.getKey(), new Float(entry.getValue().floatValue())));
+        n.hour = this.hour;
+        // the ids are replaced instead of modified when user groups are added or removed, hence they are shared
+        n.groups = this.groups;
+        n.shares = this.shares.length == 0 ? NO_SHARES : this.shares.clone();
 
         return n;
     }
@@ -53,19 +215,19 @@ public class Assignment {
         if(old.equals(newGroup))
             return;
 
-        if(getTrafficAssignment().containsKey(newGroup))
-            getTrafficAssignment().put(newGroup, getTrafficAssignment().get(newGroup).floatValue() + (getTrafficAssignment().containsKey(old) ? getTrafficAssignment().get(old).floatValue() : Constants.MIN_TRAFFIC_ADJUSTMENT));
-        else
-            getTrafficAssignment().put(newGroup, getTrafficAssignment().containsKey(old) ? getTrafficAssignment().get(old).floatValue() : Constants.MIN_TRAFFIC_ADJUSTMENT);
+        int oldId = UserGroupRegistry.findId(old);
+        int newId = getRegisteredId(newGroup);
+        float share = hasGroup(oldId) ? getTraffic(oldId) : Constants.MIN_TRAFFIC_ADJUSTMENT;
 
-        getTrafficAssignment().remove(old);
+        setTraffic(newId, getTraffic(newId) + share);
+        removeGroup(oldId);
     }
 
     @Override
     public String toString() {
         return "Assignment{" +
                 "hour=" + hour +
-                ", trafficAssignment= [" + String.join(",", trafficAssignment.entrySet().stream().map(entry -> entry.getKey() + " -> " + entry.getValue()).collect(Collectors.toSet())) +
+                ", trafficAssignment= [" + String.join(",", getTrafficAssignment().entrySet().stream().map(entry -> entry.getKey() + " -> " + entry.getValue()).collect(Collectors.toSet())) +
                 "]}";
     }
 
@@ -74,14 +236,156 @@ public class Assignment {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Assignment that = (Assignment) o;
-        return getHour() == that.getHour() &&
-                Objects.equals(getTrafficAssignment(), that.getTrafficAssignment());
+        if(getHour() != that.getHour() || !hasSameGroups(that))
+            return false;
+
+        for(int i = 0; i < shares.length; i++) {
+            if(Float.compare(shares[i], that.shares[i]) != 0)
+                return false;
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
+        // hashes the used user groups as words of a bit set (bit id % 64 of word id / 64) up to the last used one, as
+        // the hash code does not depend on how the user groups are stored
+        int hash = 0;
+        int word = 0;
+        long bits = 0L;
+        for(int id : groups) {
+            for(; word < id >>> 6; word++) {
+                hash = 31 * hash + Long.hashCode(bits);
+                bits = 0L;
+            }
+            bits |= 1L << id;
+        }
+        if(groups.length > 0)
+            hash = 31 * hash + Long.hashCode(bits);
 
-        return Objects.hash(getHour(), getTrafficAssignment());
+        hash += 31 * getHour();
+        for(float share : shares)
+            hash = 31 * hash + Float.floatToIntBits(share);
+        return hash;
     }
 
+    /**
+     * Map of user group names to shares, backed by the user groups and shares of this assignment.
+     */
+    private class TrafficView extends AbstractMap<String, Float> {
+
+        @Override
+        public Set<Entry<String, Float>> entrySet() {
+            return new AbstractSet<Entry<String, Float>>() {
+                @Override
+                public Iterator<Entry<String, Float>> iterator() {
+                    return new Iterator<Entry<String, Float>>() {
+                        // index of the next user group, which moves back by one when the current one is removed
+                        private int next = 0;
+                        private int current = -1;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < groups.length;
+                        }
+
+                        @Override
+                        public Entry<String, Float> next() {
+                            if(next >= groups.length)
+                                throw new NoSuchElementException();
+
+                            current = groups[next++];
+                            return new GroupEntry(current);
+                        }
+
+                        @Override
+                        public void remove() {
+                            if(current < 0)
+                                throw new IllegalStateException();
+                            removeGroup(current);
+                            next--;
+                            current = -1;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return getNumGroups();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return getNumGroups();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && hasGroup(UserGroupRegistry.findId((String) key));
+        }
+
+        @Override
+        public Float get(Object key) {
+            if(!(key instanceof String))
+                return null;
+
+            int index = Arrays.binarySearch(groups, UserGroupRegistry.findId((String) key));
+            return index >= 0 ? shares[index] : null;
+        }
+
+        @Override
+        public Float put(String key, Float value) {
+            Float previous = get(key);
+            setTraffic(key, value);
+            return previous;
+        }
+
+        @Override
+        public Float remove(Object key) {
+            Float previous = get(key);
+            if(previous != null)
+                removeGroup(UserGroupRegistry.findId((String) key));
+            return previous;
+        }
+    }
+
+    private class GroupEntry implements Map.Entry<String, Float> {
+        private final int id;
+
+        private GroupEntry(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getKey() {
+            return UserGroupRegistry.getName(id);
+        }
+
+        @Override
+        public Float getValue() {
+            return getTraffic(id);
+        }
+
+        @Override
+        public Float setValue(Float value) {
+            Float previous = getTraffic(id);
+            setTraffic(id, value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+            return getKey().equals(that.getKey()) && getValue().equals(that.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ getValue().hashCode();
+        }
+    }
 }
@@ -0,0 +1,62 @@
+package fenrir.genetic;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes an assignment in the same JSON shape as a plain map of user group names to shares, i.e.,
+ * {"hour": 3, "trafficAssignment": {"group1": 0.25}}, such that schedules written before remain readable.
+ */
+public class AssignmentTypeAdapter extends TypeAdapter<Assignment> {
+
+    @Override
+    public void write(JsonWriter out, Assignment assignment) throws IOException {
+        if(assignment == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("hour").value(assignment.getHour());
+        out.name("trafficAssignment").beginObject();
+        for(int i = 0; i < assignment.getNumGroups(); i++) {
+            // boxed, such that the share is written with float precision (0.001 instead of 0.0010000000474974513)
+            out.name(UserGroupRegistry.getName(assignment.getGroupIdAt(i))).value((Float) assignment.getShareAt(i));
+        }
+        out.endObject();
+        out.endObject();
+    }
+
+    @Override
+    public Assignment read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Assignment assignment = new Assignment();
+        in.beginObject();
+        while(in.hasNext()) {
+            String name = in.nextName();
+            if(name.equals("hour")) {
+                assignment.setHour(in.nextInt());
+            } else if(name.equals("trafficAssignment") && in.peek() != JsonToken.NULL) {
+                in.beginObject();
+                while(in.hasNext()) {
+                    // registers the user groups named by the file, which may be read before the traffic profile
+                    int id = UserGroupRegistry.getId(in.nextName());
+                    assignment.setTraffic(id, (float) in.nextDouble());
+                }
+                in.endObject();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return assignment;
+    }
+}
@@ -0,0 +1,607 @@
+package fenrir.genetic;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import fenrir.Checkpoint;
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import fenrir.GradualExperiment;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Compact binary encoding of populations, individuals (schedules), experiments, and checkpoints, which replaces JSON
+ * for files with the extension .bin. A file starts with the magic bytes "FNRB", the version of the format, and the kind of its
+ * content, followed by a table of the user group names and a table of the experiments used, which are referred to by
+ * their index in the table.
+ * Integers are stored as varints (signed ones zigzag encoded). An assignment stores its hour as difference to the
+ * previous hour of the schedule, its user groups as bit set of their indexes in the group table, and its shares in
+ * thousandths, unless a share is no multiple of 0.001, in which case the float itself is stored. The bit set is stored
+ * like an unsigned varint of any length, i.e., seven bits per byte, such that it takes as many bytes as a varint of
+ * the same bits for up to 64 user groups and is not limited in the number of user groups.
+ * Checkpoints store the arguments and the seed of the run before the tables, such that they are read without
+ * registering the user groups of the checkpoint, followed by the state of the run after the tables.
+ */
+public class BinaryFormat {
+    public static final String EXTENSION = ".bin";
+
+    private static final byte[] MAGIC = {'F', 'N', 'R', 'B'};
+    private static final int VERSION = 1;
+
+    private static final int SHARE_SCALE = 1000;
+
+    public enum Kind {
+        POPULATION, INDIVIDUAL, EXPERIMENTS, CHECKPOINT
+    }
+
+    private BinaryFormat() {}
+
+    /**
+     * @return true, if files with the given path are written in the binary format
+     */
+    public static boolean isBinaryPath(String path) {
+        return path != null && path.endsWith(EXTENSION);
+    }
+
+    /**
+     * @return true, if the file starts with the magic bytes of the binary format
+     */
+    public static boolean isBinary(String path) {
+        if(path == null)
+            return false;
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(path))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            return Arrays.equals(magic, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Tells the content of a binary or JSON file: JSON populations and experiments are arrays, whose elements are
+     * told apart by the type field written first for experiments, and JSON checkpoints are objects starting with the
+     * arguments of the run.
+     * @return kind of content, or null if the file cannot be read
+     */
+    public static Kind detectKind(String path) {
+        try {
+            if(isBinary(path)) {
+                try (DataInputStream in = new DataInputStream(new FileInputStream(path))) {
+                    in.skipBytes(MAGIC.length + 1);
+                    return Kind.values()[in.readUnsignedByte()];
+                }
+            }
+
+            try (JsonReader reader = new JsonReader(new FileReader(path))) {
+                if(reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    return reader.hasNext() && reader.nextName().equals("arguments") ? Kind.CHECKPOINT : Kind.INDIVIDUAL;
+                }
+
+                reader.beginArray();
+                if(reader.hasNext() && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    if(reader.hasNext() && reader.nextName().equals("baseType"))
+                        return Kind.EXPERIMENTS;
+                }
+                return Kind.POPULATION;
+            }
+        } catch (IOException | IllegalStateException | ArrayIndexOutOfBoundsException e) {
+            System.out.println(e.getMessage());
+        }
+        return null;
+    }
+
+    public static void writePopulation(List<Individual> population, String path) throws IOException {
+        write(path, Kind.POPULATION, population, Collections.emptySet());
+    }
+
+    public static void writeIndividual(Individual individual, String path) throws IOException {
+        write(path, Kind.INDIVIDUAL, Collections.singletonList(individual), Collections.emptySet());
+    }
+
+    public static void writeExperiments(Collection<Experiment> experiments, String path) throws IOException {
+        write(path, Kind.EXPERIMENTS, Collections.emptyList(), experiments);
+    }
+
+    /**
+     * Writes a checkpoint with its population, or with its current and best individual.
+     */
+    public static void writeCheckpoint(Checkpoint checkpoint, String path) throws IOException {
+        List<Individual> individuals = checkpoint.getPopulation() != null ? checkpoint.getPopulation() : Arrays.asList(checkpoint.getCurrent(), checkpoint.getBest());
+        write(path, Kind.CHECKPOINT, individuals, checkpoint.getExperiments(), checkpoint);
+    }
+
+    public static List<Individual> readPopulation(String path) throws IOException {
+        return read(path, Kind.POPULATION).individuals;
+    }
+
+    public static Individual readIndividual(String path) throws IOException {
+        return read(path, Kind.INDIVIDUAL).individuals.get(0);
+    }
+
+    public static Set<Experiment> readExperiments(String path) throws IOException {
+        return new LinkedHashSet<>(Arrays.asList(read(path, Kind.EXPERIMENTS).experiments));
+    }
+
+    public static Checkpoint readCheckpoint(String path) throws IOException {
+        return read(path, Kind.CHECKPOINT).checkpoint;
+    }
+
+    /**
+     * Reads only the arguments and the seed of a checkpoint, see Checkpoint.readHeader.
+     * @return checkpoint without state
+     */
+    public static Checkpoint readCheckpointHeader(String path) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+        try {
+            readHeader(in, path, Kind.CHECKPOINT);
+            return Checkpoint.ofGeneration(readArguments(in), in.getLong(), 0, 0L, 0L, 0L, null, null);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException(path + " is truncated or corrupt", e);
+        }
+    }
+
+    private static void write(String path, Kind kind, List<Individual> individuals, Collection<Experiment> experiments) throws IOException {
+        write(path, kind, individuals, experiments, null);
+    }
+
+    private static void write(String path, Kind kind, List<Individual> individuals, Collection<Experiment> experiments, Checkpoint checkpoint) throws IOException {
+        // tables of the experiments and user groups, in the order of their first use
+        Map<Experiment, Integer> experimentIndexes = new LinkedHashMap<>();
+        experiments.forEach(e -> experimentIndexes.putIfAbsent(e, experimentIndexes.size()));
+
+        int[] groupIndexes = new int[UserGroupRegistry.size()];
+        Arrays.fill(groupIndexes, -1);
+        List<Integer> groupIds = new ArrayList<>();
+
+        for(Individual individual : individuals) {
+            for(Map.Entry<Experiment, Schedule> entry : individual.getScheduledExperiments().entrySet()) {
+                experimentIndexes.putIfAbsent(entry.getKey(), experimentIndexes.size());
+
+                for(Assignment assignment : getAssignments(entry.getValue())) {
+                    for(int i = 0; i < assignment.getNumGroups(); i++) {
+                        int id = assignment.getGroupIdAt(i);
+                        if(groupIndexes[id] < 0) {
+                            groupIndexes[id] = groupIds.size();
+                            groupIds.add(id);
+                        }
+                    }
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(kind.ordinal());
+
+            if(kind == Kind.CHECKPOINT) {
+                writeUnsigned(out, checkpoint.getArguments().length);
+                for(String argument : checkpoint.getArguments())
+                    writeString(out, argument);
+                out.writeLong(checkpoint.getSeed());
+            }
+
+            writeUnsigned(out, groupIds.size());
+            for(int id : groupIds)
+                writeString(out, UserGroupRegistry.getName(id));
+
+            writeUnsigned(out, experimentIndexes.size());
+            for(Experiment e : experimentIndexes.keySet())
+                writeExperiment(out, e);
+
+            if(kind == Kind.CHECKPOINT)
+                writeCheckpointState(out, checkpoint, experimentIndexes);
+
+            if(kind == Kind.POPULATION || kind == Kind.CHECKPOINT)
+                writeUnsigned(out, individuals.size());
+            for(Individual individual : individuals)
+                writeIndividual(out, individual, experimentIndexes, groupIndexes, groupIds);
+        }
+    }
+
+    /**
+     * Writes the state of a checkpoint but its individuals, starting with whether it holds the population of the GA or
+     * the current and best individual of local search and SA.
+     */
+    private static void writeCheckpointState(DataOutputStream out, Checkpoint checkpoint, Map<Experiment, Integer> experimentIndexes) throws IOException {
+        out.writeBoolean(checkpoint.getPopulation() != null);
+        writeUnsigned(out, checkpoint.getStep());
+        writeUnsigned(out, checkpoint.getStatsOffset());
+        writeUnsigned(out, checkpoint.getCrossoverCount());
+        writeUnsigned(out, checkpoint.getMutationCount());
+
+        writeUnsigned(out, checkpoint.getExperiments().size());
+        for(Experiment e : checkpoint.getExperiments())
+            writeUnsigned(out, experimentIndexes.get(e));
+
+        if(checkpoint.getPopulation() == null) {
+            out.writeDouble(checkpoint.getTemperature());
+            out.writeLong(checkpoint.getRandomState());
+
+            List<Double> increases = checkpoint.getIncreases();
+            writeUnsigned(out, increases == null ? 0 : increases.size() + 1);
+            if(increases != null) {
+                for(double increase : increases)
+                    out.writeDouble(increase);
+            }
+        }
+    }
+
+    private static void writeExperiment(DataOutputStream out, Experiment e) throws IOException {
+        out.writeBoolean(e.isGradual());
+        writeSigned(out, e.getId());
+        writeString(out, e.getType() == null ? null : e.getType().name());
+        writeString(out, e.getTargetService());
+        writeSigned(out, e.getMinDuration());
+        writeSigned(out, e.getRequiredTotalTraffic());
+        writeSigned(out, e.getPriority());
+
+        List<String> preferred = e.getPreferredUserGroup();
+        writeUnsigned(out, preferred == null ? 0 : preferred.size() + 1);
+        if(preferred != null) {
+            for(String group : preferred)
+                writeString(out, group);
+        }
+
+        if(e.isGradual())
+            out.writeFloat(((GradualExperiment) e).getStartTraffic());
+    }
+
+    private static void writeIndividual(DataOutputStream out, Individual individual, Map<Experiment, Integer> experimentIndexes, int[] groupIndexes, List<Integer> groupIds) throws IOException {
+        UUID id = individual.getId();
+        out.writeBoolean(id != null);
+        if(id != null) {
+            out.writeLong(id.getMostSignificantBits());
+            out.writeLong(id.getLeastSignificantBits());
+        }
+
+        // bit set of the indexes of the user groups of an assignment in the group table
+        long[] groups = new long[(groupIds.size() + Long.SIZE - 1) / Long.SIZE];
+
+        writeUnsigned(out, individual.getScheduledExperiments().size());
+        for(Map.Entry<Experiment, Schedule> entry : individual.getScheduledExperiments().entrySet()) {
+            writeUnsigned(out, experimentIndexes.get(entry.getKey()));
+
+            // 0 for experiments without schedule
+            Schedule schedule = entry.getValue();
+            List<Assignment> assignments = getAssignments(schedule);
+            writeUnsigned(out, schedule == null ? 0 : assignments.size() + 1);
+            if(schedule == null)
+                continue;
+
+            writeSigned(out, schedule.getStartSlot());
+            int previousHour = schedule.getStartSlot();
+            for(Assignment assignment : assignments) {
+                writeSigned(out, assignment.getHour() - previousHour);
+                previousHour = assignment.getHour();
+
+                Arrays.fill(groups, 0L);
+                for(int i = 0; i < assignment.getNumGroups(); i++) {
+                    int index = groupIndexes[assignment.getGroupIdAt(i)];
+                    groups[index >>> 6] |= 1L << index;
+                }
+                writeGroups(out, groups);
+
+                // shares in the order of the indexes
+                for(int word = 0; word < groups.length; word++) {
+                    for(long mask = groups[word]; mask != 0; mask &= mask - 1)
+                        writeShare(out, assignment.getTraffic(groupIds.get(word * Long.SIZE + Long.numberOfTrailingZeros(mask))));
+                }
+            }
+        }
+    }
+
+    private static List<Assignment> getAssignments(Schedule schedule) {
+        return schedule == null || schedule.getAssignments() == null ? Collections.emptyList() : schedule.getAssignments();
+    }
+
+    private static void writeShare(DataOutputStream out, float share) throws IOException {
+        long thousandths = Math.round((double) share * SHARE_SCALE);
+        if(thousandths >= 0 && Float.floatToIntBits((float) (thousandths / (double) SHARE_SCALE)) == Float.floatToIntBits(share)) {
+            writeUnsigned(out, thousandths << 1);
+        }else {
+            writeUnsigned(out, 1);
+            out.writeFloat(share);
+        }
+    }
+
+    private static Content read(String path, Kind kind) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(Paths.get(path)));
+
+        try {
+            readHeader(in, path, kind);
+
+            String[] arguments = null;
+            long seed = 0L;
+            if(kind == Kind.CHECKPOINT) {
+                arguments = readArguments(in);
+                seed = in.getLong();
+            }
+
+            // index in the file : id in the registry
+            int[] groupIds = new int[readCount(in)];
+            for(int i = 0; i < groupIds.length; i++)
+                groupIds[i] = UserGroupRegistry.getId(readString(in));
+
+            Experiment[] experiments = new Experiment[readCount(in)];
+            for(int i = 0; i < experiments.length; i++)
+                experiments[i] = readExperiment(in);
+
+            CheckpointState state = kind == Kind.CHECKPOINT ? readCheckpointState(in, experiments) : null;
+
+            int numIndividuals = kind == Kind.POPULATION || kind == Kind.CHECKPOINT ? readCount(in) : kind == Kind.INDIVIDUAL ? 1 : 0;
+            List<Individual> individuals = new ArrayList<>(numIndividuals);
+            for(int i = 0; i < numIndividuals; i++)
+                individuals.add(readIndividual(in, experiments, groupIds));
+
+            Checkpoint checkpoint = null;
+            if(state != null && state.population) {
+                checkpoint = Checkpoint.ofGeneration(arguments, seed, state.step, state.statsOffset, state.crossoverCount, state.mutationCount, state.experiments, individuals);
+            }else if(state != null) {
+                if(individuals.size() != 2)
+                    throw new IOException(path + " is truncated or corrupt");
+                checkpoint = Checkpoint.ofIteration(arguments, seed, state.step, state.statsOffset, state.crossoverCount, state.mutationCount, state.experiments,
+                        individuals.get(0), individuals.get(1), state.temperature, state.randomState, state.increases);
+            }
+
+            return new Content(individuals, experiments, checkpoint);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | ArithmeticException e) {
+            throw new IOException(path + " is truncated or corrupt", e);
+        }
+    }
+
+    private static void readHeader(ByteBuffer in, String path, Kind kind) throws IOException {
+        byte[] magic = new byte[MAGIC.length];
+        in.get(magic);
+        if(!Arrays.equals(magic, MAGIC))
+            throw new IOException(path + " is not a binary population, schedule, experiments, or checkpoint file");
+
+        int version = in.get() & 0xFF;
+        if(version > VERSION)
+            throw new IOException(path + " has version " + version + " of the binary format, only versions up to " + VERSION + " are supported");
+
+        int content = in.get() & 0xFF;
+        if(content != kind.ordinal())
+            throw new IOException(path + " contains " + (content < Kind.values().length ? Kind.values()[content].name().toLowerCase() : "unknown content") + " instead of " + kind.name().toLowerCase());
+    }
+
+    private static String[] readArguments(ByteBuffer in) throws IOException {
+        String[] arguments = new String[readCount(in)];
+        for(int i = 0; i < arguments.length; i++)
+            arguments[i] = readString(in);
+        return arguments;
+    }
+
+    private static CheckpointState readCheckpointState(ByteBuffer in, Experiment[] experiments) throws IOException {
+        CheckpointState state = new CheckpointState();
+        state.population = in.get() != 0;
+        state.step = Math.toIntExact(readUnsigned(in));
+        state.statsOffset = readUnsigned(in);
+        state.crossoverCount = readUnsigned(in);
+        state.mutationCount = readUnsigned(in);
+
+        int numExperiments = readCount(in);
+        state.experiments = new ArrayList<>(numExperiments);
+        for(int i = 0; i < numExperiments; i++)
+            state.experiments.add(experiments[readCount(in)]);
+
+        if(!state.population) {
+            state.temperature = in.getDouble();
+            state.randomState = in.getLong();
+
+            int numIncreases = readCount(in);
+            state.increases = numIncreases == 0 ? null : new ArrayList<>(numIncreases - 1);
+            for(int i = 0; i < numIncreases - 1; i++)
+                state.increases.add(in.getDouble());
+        }
+        return state;
+    }
+
+    private static Experiment readExperiment(ByteBuffer in) throws IOException {
+        boolean gradual = in.get() != 0;
+        int id = readSignedInt(in);
+        String type = readString(in);
+        String targetService = readString(in);
+        int minDuration = readSignedInt(in);
+        long requiredTotalTraffic = readSigned(in);
+        int priority = readSignedInt(in);
+
+        int numPreferred = readCount(in);
+        List<String> preferred = numPreferred == 0 ? null : new ArrayList<>(numPreferred - 1);
+        for(int i = 0; i < numPreferred - 1; i++)
+            preferred.add(readString(in));
+
+        ExperimentType experimentType = type == null ? null : ExperimentType.valueOf(type);
+        if(gradual)
+            return new GradualExperiment(id, experimentType, targetService, minDuration, requiredTotalTraffic, priority, in.getFloat(), preferred);
+        return new Experiment(id, experimentType, targetService, minDuration, requiredTotalTraffic, priority, preferred);
+    }
+
+    private static Individual readIndividual(ByteBuffer in, Experiment[] experiments, int[] groupIds) throws IOException {
+        UUID id = in.get() != 0 ? new UUID(in.getLong(), in.getLong()) : null;
+        Individual individual = new Individual(id);
+        long[] groups = new long[(groupIds.length + Long.SIZE - 1) / Long.SIZE];
+
+        int numExperiments = readCount(in);
+        for(int i = 0; i < numExperiments; i++) {
+            Experiment e = experiments[readCount(in)];
+
+            int numAssignments = readCount(in);
+            if(numAssignments == 0) {
+                individual.getScheduledExperiments().put(e, null);
+                continue;
+            }
+
+            int startSlot = readSignedInt(in);
+            int hour = startSlot;
+            List<Assignment> assignments = new ArrayList<>(numAssignments - 1);
+            for(int j = 0; j < numAssignments - 1; j++) {
+                hour += readSignedInt(in);
+
+                Assignment assignment = new Assignment();
+                assignment.setHour(hour);
+                readGroups(in, groups, groupIds.length);
+                for(int word = 0; word < groups.length; word++) {
+                    for(long mask = groups[word]; mask != 0; mask &= mask - 1)
+                        assignment.setTraffic(groupIds[word * Long.SIZE + Long.numberOfTrailingZeros(mask)], readShare(in));
+                }
+                assignments.add(assignment);
+            }
+            individual.getScheduledExperiments().put(e, new Schedule(startSlot, assignments));
+        }
+        return individual;
+    }
+
+    /**
+     * Writes the bit set seven bits per byte, starting with the lowest bits, and sets the highest bit of every byte but
+     * the last one.
+     */
+    private static void writeGroups(DataOutputStream out, long[] groups) throws IOException {
+        int length = groups.length;
+        while(length > 0 && groups[length - 1] == 0)
+            length--;
+        int numBits = length == 0 ? 0 : length * Long.SIZE - Long.numberOfLeadingZeros(groups[length - 1]);
+
+        int shift = 0;
+        do {
+            int word = shift >>> 6;
+            long bits = groups.length == 0 ? 0L : groups[word] >>> shift;
+            if((shift & 63) > 57 && word + 1 < groups.length)
+                bits |= groups[word + 1] << -shift;
+
+            shift += 7;
+            out.writeByte((int) (bits & 0x7F) | (shift < numBits ? 0x80 : 0));
+        } while(shift < numBits);
+    }
+
+    /**
+     * Reads a bit set written by writeGroups into groups, rejecting indexes beyond the group table.
+     */
+    private static void readGroups(ByteBuffer in, long[] groups, int numGroups) {
+        Arrays.fill(groups, 0L);
+
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            long bits = b & 0x7F;
+            if(bits != 0) {
+                if(shift + Long.SIZE - Long.numberOfLeadingZeros(bits) > numGroups)
+                    throw new IllegalArgumentException("Index of user group exceeds the " + numGroups + " user groups of the file");
+
+                groups[shift >>> 6] |= bits << shift;
+                if((shift & 63) > 57 && bits >>> -shift != 0)
+                    groups[(shift >>> 6) + 1] |= bits >>> -shift;
+            }
+            shift += 7;
+        } while(b < 0);
+    }
+
+    private static float readShare(ByteBuffer in) throws IOException {
+        long value = readUnsigned(in);
+        if((value & 1L) == 0)
+            return (float) ((value >>> 1) / (double) SHARE_SCALE);
+        return in.getFloat();
+    }
+
+    private static void writeUnsigned(DataOutputStream out, long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static void writeSigned(DataOutputStream out, long value) throws IOException {
+        writeUnsigned(out, (value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes the length + 1 of the UTF-8 bytes, or 0 for null, followed by the bytes.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if(value == null) {
+            writeUnsigned(out, 0);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsigned(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    private static long readUnsigned(ByteBuffer in) throws IOException {
+        long value = 0L;
+        for(int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if(b >= 0)
+                return value;
+        }
+        throw new IOException("Malformed varint at position " + in.position());
+    }
+
+    private static long readSigned(ByteBuffer in) throws IOException {
+        long value = readUnsigned(in);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    private static int readSignedInt(ByteBuffer in) throws IOException {
+        return Math.toIntExact(readSigned(in));
+    }
+
+    /**
+     * @return count or index, which must fit the remaining bytes
+     */
+    private static int readCount(ByteBuffer in) throws IOException {
+        long value = readUnsigned(in);
+        if(value < 0 || value > in.capacity())
+            throw new IOException("Invalid count " + value + " at position " + in.position());
+        return (int) value;
+    }
+
+    private static String readString(ByteBuffer in) throws IOException {
+        int length = readCount(in);
+        if(length == 0)
+            return null;
+
+        byte[] bytes = new byte[length - 1];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Content {
+        private final List<Individual> individuals;
+        private final Experiment[] experiments;
+        private final Checkpoint checkpoint;
+
+        private Content(List<Individual> individuals, Experiment[] experiments, Checkpoint checkpoint) {
+            this.individuals = individuals;
+            this.experiments = experiments;
+            this.checkpoint = checkpoint;
+        }
+    }
+
+    // state of a checkpoint read before its individuals
+    private static class CheckpointState {
+        private boolean population;
+        private int step;
+        private long statsOffset;
+        private long crossoverCount;
+        private long mutationCount;
+        private List<Experiment> experiments;
+        private double temperature;
+        private long randomState;
+        private List<Double> increases;
+    }
+}
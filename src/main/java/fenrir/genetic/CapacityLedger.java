@@ -0,0 +1,212 @@
+package fenrir.genetic;
+
+import fenrir.Experiment;
+
+import java.util.*;
+
+/**
+ * Keeps track of the share of traffic consumed per target service, user group and hour by all scheduled experiments.
+ * Schedule changes are applied as deltas (remove the old contribution, add the new one), and only hours touched since
+ * the last check are checked against the 100% constraint.
+ */
+public class CapacityLedger {
+    // Tolerance of the 100% constraint. Shares are float, but are summed up in double and updated by adding and
+    // subtracting them, such that shares which sum up to exactly 100% in float (e.g., 0.6F + 0.4F) may exceed 1.0 by
+    // a few ulps in double. Hence up to 100.0001% traffic is accepted, where summing up floats only accepted rounding
+    // to 100%.
+    private static final double EPSILON = 1e-6;
+
+    private final TrafficProfile trafficProfile;
+
+    // TargetService : traffic consumed on it
+    private final Map<String, Occupancy> occupancy;
+
+    /**
+     * Traffic consumed on one target service, for the range of hours used by its schedules only, such that individuals
+     * scheduling a few days of a long traffic profile do not allocate (and copy) it as a whole.
+     */
+    private static class Occupancy {
+        // first hour of the range
+        private int firstHour;
+
+        // [(hour - firstHour) * numGroups + group] : consumed share of traffic
+        private double[] shares;
+
+        // hour - firstHour : changed since last checked
+        private BitSet dirtyHours;
+
+        private Occupancy(int firstHour, double[] shares, BitSet dirtyHours) {
+            this.firstHour = firstHour;
+            this.shares = shares;
+            this.dirtyHours = dirtyHours;
+        }
+
+        private Occupancy copy() {
+            return new Occupancy(firstHour, shares.clone(), (BitSet) dirtyHours.clone());
+        }
+    }
+
+    public CapacityLedger(TrafficProfile trafficProfile) {
+        this.trafficProfile = trafficProfile;
+        this.occupancy = new HashMap<>();
+    }
+
+    public CapacityLedger(CapacityLedger other) {
+        this.trafficProfile = other.trafficProfile;
+        this.occupancy = new HashMap<>();
+
+        other.occupancy.forEach((service, consumed) -> this.occupancy.put(service, consumed.copy()));
+    }
+
+    public TrafficProfile getTrafficProfile() {
+        return trafficProfile;
+    }
+
+    public void add(Experiment e, Schedule s) {
+        update(e, s, 1);
+    }
+
+    public void remove(Experiment e, Schedule s) {
+        update(e, s, -1);
+    }
+
+    private void update(Experiment e, Schedule s, int sign) {
+        if(s == null || s.getAssignments().isEmpty())
+            return;
+
+        int firstHour = Integer.MAX_VALUE;
+        int lastHour = Integer.MIN_VALUE;
+        for(Assignment assignment : s.getAssignments()) {
+            firstHour = Math.min(firstHour, assignment.getHour());
+            lastHour = Math.max(lastHour, assignment.getHour());
+        }
+
+        Occupancy consumed = ensureRange(e.getTargetService(), firstHour, lastHour);
+        int numGroups = trafficProfile.getNumGroups();
+
+        for(Assignment assignment : s.getAssignments()) {
+            int hour = assignment.getHour() - consumed.firstHour;
+
+            for(int i = 0; i < assignment.getNumGroups(); i++) {
+                consumed.shares[hour * numGroups + getGroup(assignment.getGroupIdAt(i))] += sign * assignment.getShareAt(i);
+            }
+            consumed.dirtyHours.set(hour);
+        }
+    }
+
+    private int getGroup(String userGroup) {
+        int group = trafficProfile.getGroupIndex(userGroup);
+        if(group < 0)
+            throw new IllegalArgumentException("Unknown user group '" + userGroup + "'");
+        return group;
+    }
+
+    private int getGroup(int groupId) {
+        int group = trafficProfile.getGroupIndexById(groupId);
+        if(group < 0)
+            throw new IllegalArgumentException("Unknown user group '" + UserGroupRegistry.getName(groupId) + "'");
+        return group;
+    }
+
+    /**
+     * Returns the traffic consumed on a target service, covering at least the hours from firstHour to lastHour. The
+     * range grows by at least its current length, such that shifting schedules over time copies the shares only a
+     * few times.
+     */
+    private Occupancy ensureRange(String service, int firstHour, int lastHour) {
+        int numGroups = trafficProfile.getNumGroups();
+        Occupancy consumed = occupancy.get(service);
+
+        if(consumed == null) {
+            consumed = new Occupancy(firstHour, new double[(lastHour - firstHour + 1) * numGroups], new BitSet());
+            occupancy.put(service, consumed);
+            return consumed;
+        }
+
+        int start = consumed.firstHour;
+        int numHours = consumed.shares.length / numGroups;
+        int end = start + numHours;
+        if(firstHour >= start && lastHour < end)
+            return consumed;
+
+        int newStart = start;
+        int newEnd = end;
+        if(firstHour < start)
+            newStart = Math.min(firstHour, Math.max(0, start - numHours));
+        if(lastHour >= end)
+            newEnd = Math.max(lastHour + 1, Math.min(trafficProfile.size(), end + numHours));
+
+        double[] shares = new double[(newEnd - newStart) * numGroups];
+        System.arraycopy(consumed.shares, 0, shares, (start - newStart) * numGroups, consumed.shares.length);
+
+        BitSet dirtyHours = new BitSet();
+        for(int hour = consumed.dirtyHours.nextSetBit(0); hour >= 0; hour = consumed.dirtyHours.nextSetBit(hour + 1))
+            dirtyHours.set(hour + start - newStart);
+
+        consumed.firstHour = newStart;
+        consumed.shares = shares;
+        consumed.dirtyHours = dirtyHours;
+        return consumed;
+    }
+
+    /**
+     * Returns the share of traffic of a user group consumed at the given hour by all experiments on a target service.
+     */
+    public double getOccupancy(String service, int hour, String userGroup) {
+        int group = getGroup(userGroup);
+        Occupancy consumed = occupancy.get(service);
+        if(consumed == null)
+            return 0.0;
+
+        int position = (hour - consumed.firstHour) * trafficProfile.getNumGroups() + group;
+        return position < 0 || position >= consumed.shares.length ? 0.0 : consumed.shares[position];
+    }
+
+    /**
+     * Checks the hours and user groups used by a single schedule, which has to be part of the ledger. Does not change
+     * which hours are marked as changed.
+     * @return true, if not more than 100% traffic is consumed for the user groups used by the schedule
+     */
+    public boolean isWithinCapacity(Experiment e, Schedule s) {
+        Occupancy consumed = occupancy.get(e.getTargetService());
+        if(consumed == null)
+            return true;
+
+        int numGroups = trafficProfile.getNumGroups();
+        for(Assignment assignment : s.getAssignments()) {
+            int position = (assignment.getHour() - consumed.firstHour) * numGroups;
+
+            for(int i = 0; i < assignment.getNumGroups(); i++) {
+                if(consumed.shares[position + getGroup(assignment.getGroupIdAt(i))] > 1.0 + EPSILON)
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks all hours changed since the last check. Hours which pass are marked as clean, hence an hour which
+     * exceeds 100% stays marked until the change causing it is reverted.
+     * @return true, if not more than 100% traffic is consumed for each user group and every service
+     */
+    public boolean isWithinCapacity() {
+        int numGroups = trafficProfile.getNumGroups();
+
+        for(Map.Entry<String, Occupancy> entry : occupancy.entrySet()) {
+            String service = entry.getKey();
+            Occupancy consumed = entry.getValue();
+            BitSet dirty = consumed.dirtyHours;
+
+            for(int hour = dirty.nextSetBit(0); hour >= 0; hour = dirty.nextSetBit(hour + 1)) {
+                for(int group = 0; group < numGroups; group++) {
+                    if(consumed.shares[hour * numGroups + group] > 1.0 + EPSILON) {
+                        System.out.println(String.format("More than 100%% traffic at time slot %d, user group '%s', target service '%s'", consumed.firstHour + hour, trafficProfile.getUserGroups().get(group), service));
+                        return false;
+                    }
+                }
+                dirty.clear(hour);
+            }
+        }
+        return true;
+    }
+}
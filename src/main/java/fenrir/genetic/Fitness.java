@@ -19,6 +19,18 @@ public class Fitness {
         this.startScore = startScore;
     }
 
+    public float getDurationScore() {
+        return durationScore;
+    }
+
+    public float getUserGroupScore() {
+        return userGroupScore;
+    }
+
+    public float getStartScore() {
+        return startScore;
+    }
+
     public float getValue() {
         return durationScore * Constants.FITNESS_DURATION_WEIGHT +
                 userGroupScore * Constants.FITNESS_USERGROUP_WEIGHT +
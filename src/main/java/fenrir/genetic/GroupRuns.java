@@ -0,0 +1,116 @@
+package fenrir.genetic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Run-length encoding of the user groups used by a schedule. Consecutive hours which use the same set of user groups
+ * form one run, stored as parallel arrays of the index of the first assignment, the number of hours, and the bit set
+ * of user group ids. Shares of traffic are scaled by the hourly traffic and hence differ from hour to hour, but the set
+ * of user groups usually stays the same for weeks, such that checks depending only on the used user groups cost
+ * O(runs) instead of O(hours).
+ */
+public class GroupRuns {
+    private final int[] starts;
+    private final int[] lengths;
+    private final BitSet[] masks;
+    private final int numRuns;
+
+    // union of all masks
+    private final BitSet groups;
+
+    // true, if the assignments cover the hours startSlot, startSlot + 1, ... without gaps
+    private final boolean contiguous;
+
+    // true, if at least one hour does not consume any traffic
+    private final boolean emptyHour;
+
+    private GroupRuns(int[] starts, int[] lengths, BitSet[] masks, int numRuns, BitSet groups, boolean contiguous, boolean emptyHour) {
+        this.starts = starts;
+        this.lengths = lengths;
+        this.masks = masks;
+        this.numRuns = numRuns;
+        this.groups = groups;
+        this.contiguous = contiguous;
+        this.emptyHour = emptyHour;
+    }
+
+    public static GroupRuns of(int startSlot, List<Assignment> assignments) {
+        int duration = assignments.size();
+        int[] starts = new int[4];
+        int[] lengths = new int[4];
+        BitSet[] masks = new BitSet[4];
+        int numRuns = 0;
+        BitSet groups = new BitSet();
+        boolean contiguous = true;
+        boolean emptyHour = false;
+
+        Assignment previous = null;
+        for(int i = 0; i < duration; i++) {
+            Assignment assignment = assignments.get(i);
+
+            contiguous &= assignment.getHour() == startSlot + i;
+            emptyHour |= assignment.getMaxTraffic() <= 0.0;
+
+            if(previous != null && previous.hasSameGroups(assignment)) {
+                lengths[numRuns - 1]++;
+                continue;
+            }
+            previous = assignment;
+
+            if(numRuns == starts.length) {
+                starts = Arrays.copyOf(starts, 2 * numRuns);
+                lengths = Arrays.copyOf(lengths, 2 * numRuns);
+                masks = Arrays.copyOf(masks, 2 * numRuns);
+            }
+            starts[numRuns] = i;
+            lengths[numRuns] = 1;
+            masks[numRuns] = assignment.getGroups();
+            groups.or(masks[numRuns]);
+            numRuns++;
+        }
+
+        return new GroupRuns(starts, lengths, masks, numRuns, groups, contiguous, emptyHour);
+    }
+
+    public int getNumRuns() {
+        return numRuns;
+    }
+
+    /**
+     * @return index of the first assignment of the run
+     */
+    public int getStart(int run) {
+        return starts[run];
+    }
+
+    public int getLength(int run) {
+        return lengths[run];
+    }
+
+    /**
+     * @return ids of the user groups used by the run, which must not be modified
+     */
+    public BitSet getMask(int run) {
+        return masks[run];
+    }
+
+    /**
+     * @return ids of all user groups used at any hour, which must not be modified
+     */
+    public BitSet getGroupMask() {
+        return groups;
+    }
+
+    public boolean isContiguous() {
+        return contiguous;
+    }
+
+    /**
+     * @return true, if the assignments have gaps or an hour does not consume any traffic
+     */
+    public boolean isInterrupted() {
+        return !contiguous || emptyHour;
+    }
+}
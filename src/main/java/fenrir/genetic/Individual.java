@@ -7,6 +7,7 @@ import fenrir.Experiment;
 
 import java.io.*;
 import java.math.BigInteger;
+import java.nio.file.*;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -18,11 +19,16 @@ public class Individual {
         return id;
     }
 
+    // schedules may be shared with other individuals (parents, children, clones), hence they are replaced by modified
+    // copies instead of being modified in place
     private HashMap<Experiment, Schedule> scheduledExperiments;
 
     private transient BigInteger crossoverCount;
     private transient BigInteger mutationCount;
 
+    // built lazily on the first validity check, updated by delta afterwards
+    private transient CapacityLedger capacityLedger;
+
     public Individual(UUID id) {
         this(id, new HashMap<>(), BigInteger.ZERO, BigInteger.ZERO);
     }
@@ -48,6 +54,49 @@ public class Individual {
 
     public void setScheduledExperiments(HashMap<Experiment, Schedule> scheduledExperiments) {
         this.scheduledExperiments = scheduledExperiments;
+        this.capacityLedger = null;
+    }
+
+    /**
+     * Schedules (or reschedules) an experiment. Use this instead of modifying getScheduledExperiments() directly
+     * once the individual has been validated, such that the capacity ledger stays up to date.
+     * @param e Experiment
+     * @param s New schedule of the experiment
+     */
+    public void putSchedule(Experiment e, Schedule s) {
+        Schedule old = this.scheduledExperiments.put(e, s);
+
+        if(this.capacityLedger != null) {
+            this.capacityLedger.remove(e, old);
+            this.capacityLedger.add(e, s);
+        }
+    }
+
+    /**
+     * Has to be called before the schedule of an experiment is modified in place. Only schedules which are not shared
+     * with other individuals, e.g., a copy just put by a Move, may be modified in place.
+     * @param e Experiment whose schedule is about to change
+     */
+    public void beforeScheduleChange(Experiment e) {
+        if(this.capacityLedger != null)
+            this.capacityLedger.remove(e, this.scheduledExperiments.get(e));
+    }
+
+    /**
+     * Has to be called after the schedule of an experiment was modified in place.
+     * @param e Experiment whose schedule has changed
+     */
+    public void afterScheduleChange(Experiment e) {
+        if(this.capacityLedger != null)
+            this.capacityLedger.add(e, this.scheduledExperiments.get(e));
+    }
+
+    /**
+     * Takes over a copy of the capacity ledger of another individual, which has to hold the same schedules.
+     * @param other Individual this individual was cloned from
+     */
+    public void copyCapacityLedger(Individual other) {
+        this.capacityLedger = other.capacityLedger == null ? null : new CapacityLedger(other.capacityLedger);
     }
 
     public BigInteger getCrossoverCount() {
@@ -74,12 +123,12 @@ public class Individual {
         return this.getScheduledExperiments().keySet();
     }
 
-    public boolean isValid(HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    public boolean isValid(TrafficProfile trafficProfile) {
         boolean validBusiness = hasValidBusinessExperiments();
 //        if(!validBusiness)
 //            System.out.println("valid business experiments: " + validBusiness);
 
-        boolean notMoreThan100 = consumeNotMoreThan100Percent();
+        boolean notMoreThan100 = consumeNotMoreThan100Percent(trafficProfile);
 //        if(!notMoreThan100)
 //            System.out.println("experiments consume not > 100%: " + notMoreThan100);
 
@@ -126,46 +175,51 @@ public class Individual {
      * @return true, if the same user groups are used throughout the entire schedule
      */
     public boolean isValidBusinessExperiment(Experiment e, Schedule s) {
-        boolean sameGroups = s.getAssignments().stream()
-                .map(assignment -> {
-                    return assignment.getTrafficAssignment().keySet();
-                })
-                .allMatch(set -> {
-                    return s.getAssignments().get(0).getTrafficAssignment().keySet().equals(set);
-                });
-
-        return sameGroups;
+        return s.getGroupRuns().getNumRuns() <= 1;
     }
 
-    public boolean experimentsConsumeEnoughTraffic(HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    public boolean experimentsConsumeEnoughTraffic(TrafficProfile trafficProfile) {
         return this.scheduledExperiments.entrySet().stream()
-                .map(entry -> consumesEnoughTraffic(entry.getKey(), entry.getValue(), trafficProfile))
+                .map(entry -> consumesEnoughTraffic(entry.getKey(), entry.getValue(), trafficProfile, true))
                 .allMatch(b -> b);
     }
 
+    /**
+     * Checks the constraints of a single experiment, i.e., whether its schedule is valid on its own and whether the
+     * hours and user groups it uses are not consumed by more than 100% together with all other experiments.
+     * @param e Experiment
+     * @param trafficProfile TrafficProfile
+     * @return true, if the experiment is valid
+     */
+    public boolean isValidExperiment(Experiment e, TrafficProfile trafficProfile) {
+        Schedule s = this.scheduledExperiments.get(e);
+
+        return (!e.isBusinessExperiment() || isValidBusinessExperiment(e, s)) &&
+                !s.isInterrupted() &&
+                consumesEnoughTraffic(e, s, trafficProfile, false) &&
+                getCapacityLedger(trafficProfile).isWithinCapacity(e, s);
+    }
+
     /**
      * Checks whether an experiment consumes at every time slot the specified minimum amount of traffic
      * @param e Experiment
      * @param s Schedule
      * @param trafficProfile TrafficProfile
+     * @param report Whether time slots without enough traffic are printed
      * @return true, if an experiment is scheduled to consume enough traffic
      */
-    private boolean consumesEnoughTraffic(Experiment e, Schedule s, HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    private boolean consumesEnoughTraffic(Experiment e, Schedule s, TrafficProfile trafficProfile, boolean report) {
 //        System.out.println(s.getDuration() >= e.getMinDuration());
         return s.getDuration() >= e.getMinDuration() &&
                 s.getAssignments().stream()
                 .map(assignment -> {
 //                    System.out.println("min traffic required: " + e.getMinTrafficAt(assignment.getHour() - s.getStartSlot(), s.getDuration()));
-                            long trafficConsumed = assignment.getTrafficAssignment().entrySet().stream()
-                                    .map(entry -> getTrafficAt(trafficProfile, assignment.getHour(), entry.getKey(), entry.getValue()))
-//                            .map(entry -> getTrafficAt(s.getStartSlot(), entry.getKey(), entry.getValue()))
-                                    .map(t -> {
-//                                System.out.println("traffic consumed: " + t);
-                                        return t;
-                                    })
-                                    .reduce(Long::sum).orElse(0L);
+                            long trafficConsumed = 0L;
+                            for(int i = 0; i < assignment.getNumGroups(); i++) {
+                                trafficConsumed += trafficProfile.getTrafficAtById(assignment.getHour(), assignment.getGroupIdAt(i), assignment.getShareAt(i));
+                            }
                             long minTraffic = e.getMinTrafficAt(assignment.getHour() - s.getStartSlot(), s.getDuration());
-                            if(trafficConsumed < minTraffic)
+                            if(report && trafficConsumed < minTraffic)
                                 System.out.println(String.format("Experiment %d @ slot %d: not enough traffic (%d <= %d)", e.getId(), assignment.getHour(), trafficConsumed, minTraffic));
 
                             return trafficConsumed >= minTraffic;
@@ -173,10 +227,6 @@ public class Individual {
                 ).allMatch(b -> b);
     }
 
-    private long getTrafficAt(HashMap<Integer, HashMap<String, Integer>> trafficProfile, int hour, String userGroup, float percentage) {
-        return Math.round(trafficProfile.get(hour).get(userGroup) * percentage);
-    }
-
     private Map<Experiment, Schedule> getScheduledBusinessExperiments() {
         return this.scheduledExperiments.entrySet().stream()
                 .filter(entry -> entry.getKey().isBusinessExperiment())
@@ -184,63 +234,21 @@ public class Individual {
     }
 
     /**
-     * Checks whether the scheduled experiments do not consume more than 100% traffic per user group per service
+     * Checks whether the scheduled experiments do not consume more than 100% traffic per user group per service.
+     * Only hours changed since the last check are checked.
+     * @param trafficProfile TrafficProfile
      * @return true, if not more than 100% traffic is consumend for each user group and for every service
      */
-    public boolean consumeNotMoreThan100Percent() {
-
-//        System.out.println(this.scheduledExperiments.values().stream()
-//                .flatMap(schedule -> schedule.getAssignments().stream())
-//                .map(assignment -> assignment.getHour())
-//                .reduce(Integer::max).get());
-
-        Set<String> targetServices = this.scheduledExperiments.keySet().stream()
-                .map(experiment -> experiment.getTargetService())
-                .collect(Collectors.toSet());
-
-//        System.out.println("targetServices: " + String.join(", ", targetServices));
-
-        for (String targetService : targetServices) {
-
-            Map<Experiment, Schedule> experiments = this.scheduledExperiments.entrySet().stream()
-                    .filter(entry -> entry.getKey().getTargetService().equals(targetService))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-            // get all UserGroups involved in scheduled experiments
-            Set<String> userGroups = experiments.entrySet().stream()
-                    .flatMap(entry -> entry.getValue().getAssignments().stream())
-                    .flatMap(assignment -> assignment.getTrafficAssignment().keySet().stream())
-                    .collect(Collectors.toSet());
-
-//            System.out.println("userGroups: " + String.join(", ", userGroups));
-
-            for (String userGroup : userGroups) {
-                int lastTimeSlot = experiments.entrySet().stream()
-                        .flatMap(entry -> entry.getValue().getAssignments().stream())
-                        .filter(assignment -> assignment.getTrafficAssignment().containsKey(userGroup))
-                        .map(assignment -> assignment.getHour())
-                        .reduce(Integer::max).get();
-
-//                System.out.println("targetService = " + targetService + ", userGroup = " + userGroup + ", lastTimeSlot = " + lastTimeSlot);
+    public boolean consumeNotMoreThan100Percent(TrafficProfile trafficProfile) {
+        return getCapacityLedger(trafficProfile).isWithinCapacity();
+    }
 
-                for (int i = 0; i <= lastTimeSlot; i++) {
-                    int hour = i;
-                    float totalTraffic =
-                            experiments.entrySet().stream()
-                                    .flatMap(entry -> entry.getValue().getAssignments().stream())
-                                    .filter(assignment -> assignment.getTrafficAssignment().containsKey(userGroup))
-                                    .filter(assignment -> assignment.getHour() == hour)
-                                    .map(assignment -> assignment.getTrafficAssignment().get(userGroup))
-                                    .reduce(Float::sum).orElse(0.0F);
-//
-                    if (totalTraffic > 1.0F) {
-                        System.out.println(String.format("More than 100%% traffic at time slot %d, user group '%s', target service '%s'", hour, userGroup, targetService));
-                        return false;
-                    }
-                }
-            }
+    private CapacityLedger getCapacityLedger(TrafficProfile trafficProfile) {
+        if(this.capacityLedger == null || this.capacityLedger.getTrafficProfile() != trafficProfile) {
+            this.capacityLedger = new CapacityLedger(trafficProfile);
+            this.scheduledExperiments.forEach(this.capacityLedger::add);
         }
-        return true;
+        return this.capacityLedger;
     }
 
     @Override
@@ -258,18 +266,56 @@ public class Individual {
         return Objects.hash(getId(), getScheduledExperiments());
     }
 
+    /**
+     * Saves the individual as JSON, or in the binary format if the path has the extension .bin.
+     */
     public static void saveIndividualAsJson(Individual individual, String path) {
         if(individual == null || path == null)
             return;
 
-        try (Writer writer = new FileWriter(path)) {
-            Gson gson = App.gsonBuilder.create();
+        saveIndividual(individual, path, BinaryFormat.isBinaryPath(path));
+    }
+
+    private static void saveIndividual(Individual individual, String path, boolean binary) {
+        if(binary) {
+            try {
+                BinaryFormat.writeIndividual(individual, path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return;
+        }
+
+        try (Writer writer = new BufferedWriter(new FileWriter(path), 1 << 16)) {
+            Gson gson = App.getGson();
             gson.toJson(individual, writer);
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
     }
 
+    /**
+     * Saves the individual to a temporary file next to the given path and renames it afterwards, such that readers of
+     * the path never see a partially written individual.
+     */
+    public static void replaceIndividualAsJson(Individual individual, String path) {
+        if(individual == null || path == null)
+            return;
+
+        Path target = Paths.get(path);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        saveIndividual(individual, temp.toString(), BinaryFormat.isBinaryPath(path));
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Reads an individual saved as JSON or in the binary format.
+     */
     public static Individual readIndividualFromJson(String path) {
         if(path == null)
             return null;
@@ -278,7 +324,16 @@ public class Individual {
         if(!f.exists() || f.isDirectory())
             return null;
 
-        Gson gson = App.gsonBuilder.create();
+        if(BinaryFormat.isBinary(path)) {
+            try {
+                return BinaryFormat.readIndividual(path);
+            } catch (IOException e) {
+                System.out.println(e.getMessage());
+            }
+            return null;
+        }
+
+        Gson gson = App.getGson();
         try (JsonReader reader = new JsonReader(new FileReader(path))) {
             return gson.fromJson(reader, Individual.class);
         } catch (IOException e) {
@@ -287,7 +342,7 @@ public class Individual {
         return null;
     }
 
-    public void exportTrafficConsumptionAsCsv(String path, String targetService, HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    public void exportTrafficConsumptionAsCsv(String path, String targetService, TrafficProfile trafficProfile) {
         if(path == null)
             return;
 
@@ -307,7 +362,7 @@ public class Individual {
                             .flatMap(entry -> entry.getValue().getAssignments().stream())
                                 .filter(assignment -> assignment.getHour() == timeSlot)
                                 .flatMap(assignment -> assignment.getTrafficAssignment().entrySet().stream())
-                                    .collect(Collectors.groupingBy(item -> item.getKey(), Collectors.summingLong(item -> getTrafficAt(trafficProfile, timeSlot, item.getKey(), item.getValue()))));
+                                    .collect(Collectors.groupingBy(item -> item.getKey(), Collectors.summingLong(item -> trafficProfile.getTrafficAt(timeSlot, item.getKey(), item.getValue()))));
                         long totalConsumption = groupedConsumption.values().stream().mapToLong(Long::longValue).sum();
 
                         pw.println(timeSlot + "," + totalConsumption + ", " +
@@ -424,13 +479,29 @@ public class Individual {
         }
     }
 
+    /**
+     * Computes the fitness as the priority-weighted sum of the (cached) scores of the individual schedules.
+     * @param props Population properties
+     * @return Fitness of the individual
+     */
     public Fitness getFitness(PopulationProperties props) {
+        float durationSum = 0F, userGroupSum = 0F, startSum = 0F;
+
+        for(Map.Entry<Experiment, Schedule> entry : this.getScheduledExperiments().entrySet()) {
+            Experiment e = entry.getKey();
+            Fitness scores = entry.getValue().getFitness(e, props);
+
+            durationSum += e.getPriority() * scores.getDurationScore();
+            startSum += e.getPriority() * scores.getStartScore();
+            if(e.getPreferredUserGroup() != null && e.getPreferredUserGroup().size() > 0)
+                userGroupSum += e.getPriority() * scores.getUserGroupScore();
+        }
 
-        float durationScore = getDurationScore(props.minDurations, props.prioritySum);
-        float userGroupScore = props.maxUserGroupCoverage > 0 ? (getPreferredUserGroupCoverage(props.trafficProfile) / props.maxUserGroupCoverage) : 1.0F;
-        float startScore = getStartScore(props.prioritySum);
+        float durationScore = durationSum / props.prioritySum;
+        float userGroupScore = props.maxUserGroupCoverage > 0 ? (userGroupSum / props.maxUserGroupCoverage) : 1.0F;
+        float startScore = startSum / props.prioritySum;
 
-        return new Fitness(durationScore,userGroupScore, startScore);
+        return new Fitness(durationScore, userGroupScore, startScore);
     }
 
     public float getDurationScore(Map<Integer, Integer> minDurations, int prioritySum) {
@@ -445,7 +516,7 @@ public class Individual {
                 .reduce(Float::sum).orElse(0F) / prioritySum;
     }
 
-    public float getPreferredUserGroupCoverage(HashMap<Integer,HashMap<String,Integer>> trafficProfile) {
+    public float getPreferredUserGroupCoverage(TrafficProfile trafficProfile) {
         return this.getScheduledExperiments().entrySet().stream()
                 .filter(entry -> entry.getKey().getPreferredUserGroup() != null && entry.getKey().getPreferredUserGroup().size() > 0)
                 .map(entry -> entry.getValue().preferredUserGroupCoverage(entry.getKey().getPreferredUserGroup(), trafficProfile) * entry.getKey().getPriority())
@@ -453,16 +524,10 @@ public class Individual {
     }
 
     public Fitness getFitnessOfExperiment(PopulationProperties props, Experiment e, Schedule s) {
-        float durationScore = props.minDurations.get(e.getId()) / (float) s.getDuration();
-
-        float userGroupScore = (e.getPreferredUserGroup() != null && e.getPreferredUserGroup().size() > 0) ? s.preferredUserGroupCoverage(e.getPreferredUserGroup(), props.trafficProfile) : 1.0F;
-
-        float startScore = 1 / (float) (1 + s.getStartSlot());
-
-        return new Fitness(durationScore, userGroupScore, startScore);
+        return s.getFitness(e, props);
     }
 
-    private float getTrafficOverheadScore(HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    private float getTrafficOverheadScore(TrafficProfile trafficProfile) {
         List<Long> totalConsumption = new ArrayList<>();
         List<Long> totalMinimum = new ArrayList<>();
 
@@ -470,7 +535,7 @@ public class Individual {
             entry.getValue().getAssignments().stream()
                     .forEach(assignment -> {
                                 totalConsumption.add(assignment.getTrafficAssignment().entrySet().stream()
-                                        .map(item -> getTrafficAt(trafficProfile, assignment.getHour(), item.getKey(), item.getValue()))
+                                        .map(item -> trafficProfile.getTrafficAt(assignment.getHour(), item.getKey(), item.getValue()))
                                         .reduce(Long::sum).orElse(0L));
                                 totalMinimum.add(entry.getKey().getMinTrafficAt(assignment.getHour() - entry.getValue().getStartSlot(), entry.getValue().getDuration()));
                             }
@@ -0,0 +1,80 @@
+package fenrir.genetic;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import fenrir.Experiment;
+import fenrir.ExperimentTypeAdapter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Reads and writes an individual as {"id": "...", "scheduledExperiments": [[experiment, schedule], ...]}, i.e., in the
+ * shape Gson uses for maps with complex keys, such that populations written before remain readable. Experiments
+ * without a schedule are written with the schedule null.
+ */
+public class IndividualTypeAdapter extends TypeAdapter<Individual> {
+    private final ExperimentTypeAdapter experimentAdapter = new ExperimentTypeAdapter();
+    private final ScheduleTypeAdapter scheduleAdapter = new ScheduleTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, Individual individual) throws IOException {
+        if(individual == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        if(individual.getId() != null)
+            out.name("id").value(individual.getId().toString());
+        if(individual.getScheduledExperiments() != null) {
+            out.name("scheduledExperiments").beginArray();
+            for(Map.Entry<Experiment, Schedule> entry : individual.getScheduledExperiments().entrySet()) {
+                out.beginArray();
+                experimentAdapter.write(out, entry.getKey());
+                scheduleAdapter.write(out, entry.getValue());
+                out.endArray();
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Individual read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        UUID id = null;
+        HashMap<Experiment, Schedule> scheduledExperiments = null;
+
+        in.beginObject();
+        while(in.hasNext()) {
+            String name = in.nextName();
+            if(name.equals("id") && in.peek() != JsonToken.NULL) {
+                id = UUID.fromString(in.nextString());
+            } else if(name.equals("scheduledExperiments") && in.peek() != JsonToken.NULL) {
+                scheduledExperiments = new HashMap<>();
+                in.beginArray();
+                while(in.hasNext()) {
+                    in.beginArray();
+                    Experiment e = experimentAdapter.read(in);
+                    Schedule s = scheduleAdapter.read(in);
+                    in.endArray();
+                    scheduledExperiments.put(e, s);
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Individual(id, scheduledExperiments);
+    }
+}
@@ -0,0 +1,33 @@
+package fenrir.genetic;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public enum IslandTopology {
+    Ring,
+    Full;
+
+    /**
+     * Returns the islands whose emigrants are received by the given island.
+     * @param island Receiving island
+     * @param numIslands Total number of islands
+     * @return indices of the sending islands
+     */
+    public List<Integer> getSources(int island, int numIslands) {
+        if(numIslands < 2)
+            return Collections.emptyList();
+
+        switch (this) {
+            case Full:
+                return IntStream.range(0, numIslands)
+                        .filter(source -> source != island)
+                        .boxed()
+                        .collect(Collectors.toList());
+            case Ring:
+            default:
+                return Collections.singletonList((island + numIslands - 1) % numIslands);
+        }
+    }
+}
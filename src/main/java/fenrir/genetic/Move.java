@@ -0,0 +1,47 @@
+package fenrir.genetic;
+
+import fenrir.Experiment;
+
+/**
+ * Replaces the schedule of one experiment of an individual, such that the change can be undone.
+ * Applying or undoing a move updates the capacity ledger of the individual by delta, and the fitness of the
+ * individual is only recomputed for the schedule that changed.
+ */
+public class Move {
+    private final Individual individual;
+    private final Experiment experiment;
+    private final Schedule before;
+    private final Schedule after;
+
+    /**
+     * @param individual Individual to change
+     * @param experiment Experiment whose schedule is replaced
+     * @param after New schedule of the experiment, must not be the current schedule
+     */
+    public Move(Individual individual, Experiment experiment, Schedule after) {
+        this.individual = individual;
+        this.experiment = experiment;
+        this.before = individual.getScheduledExperiments().get(experiment);
+        this.after = after;
+    }
+
+    public Experiment getExperiment() {
+        return experiment;
+    }
+
+    public Schedule getBefore() {
+        return before;
+    }
+
+    public Schedule getAfter() {
+        return after;
+    }
+
+    public void apply() {
+        individual.putSchedule(experiment, after);
+    }
+
+    public void undo() {
+        individual.putSchedule(experiment, before);
+    }
+}
@@ -1,11 +1,10 @@
 package fenrir.genetic;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 public class PopulationProperties {
-    public HashMap<Integer, HashMap<String, Integer>> trafficProfile;
+    public TrafficProfile trafficProfile;
 
     public int maxUserGroupCoverage;
 
@@ -13,7 +12,7 @@ public class PopulationProperties {
 
     public int prioritySum;
 
-    public PopulationProperties(HashMap<Integer, HashMap<String, Integer>> trafficProfile, Map<Integer, Integer> minDurations, int maxUserGroupCoverage, int prioritySum) {
+    public PopulationProperties(TrafficProfile trafficProfile, Map<Integer, Integer> minDurations, int maxUserGroupCoverage, int prioritySum) {
         this.trafficProfile = trafficProfile;
         this.minDurations = minDurations;
         this.maxUserGroupCoverage = maxUserGroupCoverage;
@@ -0,0 +1,53 @@
+package fenrir.genetic;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the individuals of a population saved as JSON one at a time, such that only the individual just read has to be
+ * kept in memory.
+ */
+public class PopulationReader implements Iterator<Individual>, Closeable {
+    private final JsonReader reader;
+    private final IndividualTypeAdapter adapter = new IndividualTypeAdapter();
+
+    public PopulationReader(String path) throws IOException {
+        this.reader = new JsonReader(new BufferedReader(new InputStreamReader(new FileInputStream(path), StandardCharsets.UTF_8), 1 << 16));
+        try {
+            this.reader.beginArray();
+        } catch (IOException | IllegalStateException e) {
+            this.reader.close();
+            throw new IOException("Invalid population " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return reader.hasNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Individual next() {
+        if(!hasNext())
+            throw new NoSuchElementException();
+
+        try {
+            return adapter.read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -1,5 +1,7 @@
 package fenrir.genetic;
 
+import fenrir.Experiment;
+
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -8,20 +10,44 @@ public class Schedule {
     private int startSlot;
     private List<Assignment> assignments;
 
+    // scores of the experiment scheduled by this schedule, cleared whenever the schedule changes
+    private transient volatile ScoreCache scoreCache;
+
+    // user groups used per run of hours, cleared whenever the schedule changes
+    private transient volatile GroupRuns groupRuns;
+
+    private static class ScoreCache {
+        private final Experiment experiment;
+        private final PopulationProperties props;
+        private final Fitness fitness;
+
+        private ScoreCache(Experiment experiment, PopulationProperties props, Fitness fitness) {
+            this.experiment = experiment;
+            this.props = props;
+            this.fitness = fitness;
+        }
+    }
+
     public int getStartSlot() {
         return startSlot;
     }
 
     public void setStartSlot(int startSlot) {
         this.startSlot = startSlot;
+        invalidateCaches();
     }
 
+    /**
+     * @return assignments per hour. The list must not be changed directly, but by setAssignments() or the methods of
+     * this schedule, as it is cached as user group runs.
+     */
     public List<Assignment> getAssignments() {
         return assignments;
     }
 
     public void setAssignments(List<Assignment> assignments) {
         this.assignments = assignments;
+        invalidateCaches();
     }
 
     public int getDuration() {
@@ -37,20 +63,58 @@ public class Schedule {
     public Schedule() {
     }
 
-    public boolean isInterrupted() {
-        int current = getStartSlot();
+    /**
+     * Returns the (unweighted) scores of the given experiment when scheduled by this schedule.
+     * The result is cached until the schedule or one of its assignments is modified.
+     * @param e Experiment scheduled by this schedule
+     * @param props Population properties
+     * @return duration, user group, and start score of the experiment
+     */
+    public Fitness getFitness(Experiment e, PopulationProperties props) {
+        ScoreCache cache = this.scoreCache;
+        if(cache != null && cache.experiment == e && cache.props == props)
+            return cache.fitness;
 
-        for(Assignment a : getAssignments()) {
-            if(a.getHour() == current) {
-                current++;
+        ownAssignments();
 
-                if(a.getTrafficAssignment().values().stream().max(Float::compare).orElse(0.0F) <= 0.0)
-                    return true;
-            }
-            else
-                return true;
-        }
-        return false;
+        float durationScore = props.minDurations.get(e.getId()) / (float) getDuration();
+
+        float userGroupScore = (e.getPreferredUserGroup() != null && e.getPreferredUserGroup().size() > 0) ? preferredUserGroupCoverage(e.getPreferredUserGroup(), props.trafficProfile) : 1.0F;
+
+        float startScore = 1 / (float) (1 + getStartSlot());
+
+        Fitness fitness = new Fitness(durationScore, userGroupScore, startScore);
+        this.scoreCache = new ScoreCache(e, props, fitness);
+        return fitness;
+    }
+
+    /**
+     * Returns the run-length encoding of the user groups used by this schedule. The result is cached until the
+     * schedule or one of its assignments is modified, which invalidate the cache explicitly.
+     */
+    public GroupRuns getGroupRuns() {
+        GroupRuns runs = this.groupRuns;
+        if(runs != null)
+            return runs;
+
+        ownAssignments();
+        runs = GroupRuns.of(this.startSlot, this.assignments);
+        this.groupRuns = runs;
+        return runs;
+    }
+
+    // assignments notify this schedule about changes from now on
+    private void ownAssignments() {
+        this.assignments.forEach(assignment -> assignment.setOwner(this));
+    }
+
+    void invalidateCaches() {
+        this.scoreCache = null;
+        this.groupRuns = null;
+    }
+
+    public boolean isInterrupted() {
+        return getGroupRuns().isInterrupted();
     }
 
     public void moveByHours(int hours, boolean back) {
@@ -62,6 +126,7 @@ public class Schedule {
         for(Assignment a : this.assignments) {
             a.setHour(a.getHour() + (back ? -hours : hours));
         }
+        invalidateCaches();
     }
 
     public void shortenByHours(int hours) {
@@ -69,6 +134,7 @@ public class Schedule {
             return;
 
         this.assignments = this.assignments.subList(0, this.getDuration() - hours);
+        invalidateCaches();
     }
 
     public void adjustDuration(int hours) {
@@ -83,6 +149,7 @@ public class Schedule {
                         this.assignments.add(a);
                     });
         }
+        invalidateCaches();
     }
 
     public void addUserGroup(String newGroup, float defaultTraffic) {
@@ -92,6 +159,7 @@ public class Schedule {
                         assignment.getTrafficAssignment().put(newGroup, defaultTraffic);
                     }
                 });
+        invalidateCaches();
     }
 
     public void addUserGroupRange(String newGroup, float defaultTraffic, int fromSlot, int toSlot) {
@@ -102,12 +170,14 @@ public class Schedule {
                         assignment.getTrafficAssignment().put(newGroup, defaultTraffic);
                     }
                 });
+        invalidateCaches();
     }
 
     public void removeUserGroup(String group) {
         this.assignments.stream()
                 .filter(assignment -> assignment.getTrafficAssignment().containsKey(group) && assignment.getTrafficAssignment().size() > 1)
                 .forEach(assignment -> assignment.getTrafficAssignment().remove(group));
+        invalidateCaches();
     }
 
     public void removeUserGroupRange(String group, int fromSlot, int toSlot) {
@@ -115,21 +185,39 @@ public class Schedule {
                 .filter(assignment -> assignment.getHour() >= fromSlot && assignment.getHour() <= toSlot)
                 .filter(assignment -> assignment.getTrafficAssignment().containsKey(group) && assignment.getTrafficAssignment().size() > 1)
                 .forEach(assignment -> assignment.getTrafficAssignment().remove(group));
+        invalidateCaches();
     }
 
     public List<String> getUserGroups() {
-        return this.assignments.stream()
-                .flatMap(assignment -> assignment.getTrafficAssignment().keySet().stream())
-                .distinct()
-                .collect(Collectors.toList());
+        return getNames(getGroupRuns().getGroupMask());
     }
 
     public List<String> getUserGroupsInRange(int fromSlot, int toSlot) {
-        return this.assignments.stream()
-                .filter(assignment -> assignment.getHour() >= fromSlot && assignment.getHour() <= toSlot)
-                .flatMap(assignment -> assignment.getTrafficAssignment().keySet().stream())
-                .distinct()
-                .collect(Collectors.toList());
+        GroupRuns runs = getGroupRuns();
+        if(!runs.isContiguous())
+            return this.assignments.stream()
+                    .filter(assignment -> assignment.getHour() >= fromSlot && assignment.getHour() <= toSlot)
+                    .flatMap(assignment -> assignment.getTrafficAssignment().keySet().stream())
+                    .distinct()
+                    .collect(Collectors.toList());
+
+        // hours map to indices, as the assignments have no gaps
+        int from = fromSlot - this.startSlot;
+        int to = toSlot - this.startSlot;
+        BitSet groups = new BitSet();
+        for(int run = 0; run < runs.getNumRuns(); run++) {
+            int start = runs.getStart(run);
+            if(start <= to && start + runs.getLength(run) - 1 >= from)
+                groups.or(runs.getMask(run));
+        }
+        return getNames(groups);
+    }
+
+    private static List<String> getNames(BitSet groups) {
+        List<String> names = new ArrayList<>(groups.cardinality());
+        for(int id = groups.nextSetBit(0); id >= 0; id = groups.nextSetBit(id + 1))
+            names.add(UserGroupRegistry.getName(id));
+        return names;
     }
 
     public void flipUserGroup(String old, String newGroup) {
@@ -147,9 +235,10 @@ public class Schedule {
 //
 //                    assignment.getTrafficAssignment().remove(old); }
                     );
+        invalidateCaches();
     }
 
-    public float preferredUserGroupCoverage(List<String> userGroups, HashMap<Integer,HashMap<String,Integer>> trafficProfile) {
+    public float preferredUserGroupCoverage(List<String> userGroups, TrafficProfile trafficProfile) {
         if(userGroups == null || userGroups.size() == 0)
             return 0.0F;
 
@@ -161,25 +250,49 @@ public class Schedule {
 //                            ? 1.0F/getDuration() : 0.0F;
 //                }).reduce(Float::sum).orElse(0.0F);
 
-        return getAssignments().stream()
-                .map(assignment -> {
-                    return userGroups.stream().
-                            anyMatch(userGroup -> assignment.getTrafficAssignment().containsKey(userGroup) &&
-                                    isPrimaryUserGroup(assignment, userGroup, trafficProfile))
-                            ? 1.0F/getDuration() : 0.0F;
-                }).reduce(Float::sum).orElse(0.0F);
-    }
+        BitSet preferred = new BitSet();
+        for(String userGroup : userGroups) {
+            int id = UserGroupRegistry.findId(userGroup);
+            if(id >= 0)
+                preferred.set(id);
+        }
 
-    private boolean isPrimaryUserGroup(Assignment assignment, String userGroup, HashMap<Integer,HashMap<String, Integer>> trafficProfile) {
-        float consumedTraffic = getTrafficAt(trafficProfile, assignment.getHour(), userGroup, assignment.getTrafficAssignment().get(userGroup));
+        // an hour is covered if a preferred user group is its primary user group. Runs without any preferred user group
+        // cover no hour, and runs using a single (preferred) user group cover all of their hours.
+        GroupRuns runs = getGroupRuns();
+        int covered = 0;
+        for(int run = 0; run < runs.getNumRuns(); run++) {
+            BitSet mask = runs.getMask(run);
+            if(!mask.intersects(preferred))
+                continue;
+
+            if(mask.cardinality() == 1) {
+                covered += runs.getLength(run);
+                continue;
+            }
 
-        return assignment.getTrafficAssignment().entrySet().stream()
-                .filter(entry -> !entry.getKey().equals(userGroup))
-                .allMatch(entry -> consumedTraffic > getTrafficAt(trafficProfile, assignment.getHour(), entry.getKey(), entry.getValue()));
+            for(int i = runs.getStart(run); i < runs.getStart(run) + runs.getLength(run); i++) {
+                Assignment assignment = this.assignments.get(i);
+                for(int candidate = mask.nextSetBit(0); candidate >= 0; candidate = mask.nextSetBit(candidate + 1)) {
+                    if(preferred.get(candidate) && isPrimaryUserGroup(assignment, candidate, trafficProfile)) {
+                        covered++;
+                        break;
+                    }
+                }
+            }
+        }
+        return getDuration() == 0 ? 0.0F : covered / (float) getDuration();
     }
 
-    private long getTrafficAt(HashMap<Integer, HashMap<String, Integer>> trafficProfile, int hour, String userGroup, float percentage) {
-        return Math.round(trafficProfile.get(hour).get(userGroup) * percentage);
+    private boolean isPrimaryUserGroup(Assignment assignment, int groupId, TrafficProfile trafficProfile) {
+        float consumedTraffic = trafficProfile.getTrafficAtById(assignment.getHour(), groupId, assignment.getTraffic(groupId));
+
+        for(int i = 0; i < assignment.getNumGroups(); i++) {
+            int other = assignment.getGroupIdAt(i);
+            if(other != groupId && consumedTraffic <= trafficProfile.getTrafficAtById(assignment.getHour(), other, assignment.getShareAt(i)))
+                return false;
+        }
+        return true;
     }
 
     public void adjustTrafficConsumption(String userGroup, float change) {
@@ -194,6 +307,7 @@ public class Schedule {
 
                     assignment.getTrafficAssignment().put(userGroup, newPercent);
                 });
+        invalidateCaches();
     }
 
     public void adjustTrafficConsumption(int start, int endInclusive, String userGroup, float change) {
@@ -209,6 +323,7 @@ public class Schedule {
 
                     assignment.getTrafficAssignment().put(userGroup, newPercent);
                 });
+        invalidateCaches();
     }
 
     @Override
@@ -0,0 +1,64 @@
+package fenrir.genetic;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes a schedule as {"startSlot": 3, "assignments": [...]}, without the reflection of the default adapter.
+ */
+public class ScheduleTypeAdapter extends TypeAdapter<Schedule> {
+    private final AssignmentTypeAdapter assignmentAdapter = new AssignmentTypeAdapter();
+
+    @Override
+    public void write(JsonWriter out, Schedule schedule) throws IOException {
+        if(schedule == null) {
+            out.nullValue();
+            return;
+        }
+
+        out.beginObject();
+        out.name("startSlot").value(schedule.getStartSlot());
+        if(schedule.getAssignments() != null) {
+            out.name("assignments").beginArray();
+            for(Assignment assignment : schedule.getAssignments())
+                assignmentAdapter.write(out, assignment);
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Schedule read(JsonReader in) throws IOException {
+        if(in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        int startSlot = 0;
+        List<Assignment> assignments = null;
+
+        in.beginObject();
+        while(in.hasNext()) {
+            String name = in.nextName();
+            if(name.equals("startSlot")) {
+                startSlot = in.nextInt();
+            } else if(name.equals("assignments") && in.peek() != JsonToken.NULL) {
+                assignments = new ArrayList<>();
+                in.beginArray();
+                while(in.hasNext())
+                    assignments.add(assignmentAdapter.read(in));
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Schedule(startSlot, assignments);
+    }
+}
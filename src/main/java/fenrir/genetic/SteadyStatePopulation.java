@@ -0,0 +1,136 @@
+package fenrir.genetic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Population of a steady-state GA, shared by all worker threads. Members are kept ordered by fitness in a skip list,
+ * such that the worst and best member are found without sorting, and in an array of slots for uniform random access.
+ * A new individual replaces the worst member if it is better. Members of equal fitness are ordered by the sequence in
+ * which they were added, oldest first, such that the whole start population is kept and the oldest of equally fit
+ * members is replaced first. New individuals whose fitness equals the fitness of a member are treated as duplicates
+ * and rejected.
+ */
+public class SteadyStatePopulation {
+    private final PopulationProperties props;
+
+    // ordered by fitness, worst first
+    private final ConcurrentSkipListSet<Member> members;
+
+    private final AtomicReferenceArray<Member> slots;
+
+    // sequence number of the next member, guarded by this
+    private long sequence = 0L;
+
+    private static class Member implements Comparable<Member> {
+        private final Individual individual;
+        private final double fitness;
+        private final int slot;
+        private final long sequence;
+
+        private Member(Individual individual, double fitness, int slot, long sequence) {
+            this.individual = individual;
+            this.fitness = fitness;
+            this.slot = slot;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Member other) {
+            int result = Double.compare(this.fitness, other.fitness);
+            return result != 0 ? result : Long.compare(this.sequence, other.sequence);
+        }
+    }
+
+    public SteadyStatePopulation(List<Individual> population, PopulationProperties props) {
+        this.props = props;
+        this.members = new ConcurrentSkipListSet<>();
+
+        Member[] slots = new Member[population.size()];
+        for(int slot = 0; slot < slots.length; slot++) {
+            Individual individual = population.get(slot);
+            slots[slot] = new Member(individual, individual.getFitness(props).getValue(), slot, sequence++);
+            this.members.add(slots[slot]);
+        }
+
+        this.slots = new AtomicReferenceArray<>(slots);
+    }
+
+    public int size() {
+        return slots.length();
+    }
+
+    /**
+     * Selects the best of tournamentSize randomly chosen members.
+     * @param rand Random source of the calling thread
+     * @param tournamentSize Number of members competing
+     * @return selected individual
+     */
+    public Individual select(Random rand, int tournamentSize) {
+        Member best = null;
+        for(int i = 0; i < tournamentSize; i++) {
+            Member candidate = slots.get(rand.nextInt(slots.length()));
+            if(best == null || candidate.fitness > best.fitness)
+                best = candidate;
+        }
+        return best.individual;
+    }
+
+    /**
+     * Inserts the given individual in place of the worst member, if it is better than the worst member and its fitness
+     * is not yet present in the population.
+     * @param individual Valid individual
+     * @return true, if the individual was inserted
+     */
+    public boolean offer(Individual individual) {
+        double fitness = individual.getFitness(props).getValue();
+
+        // cheap check without locking, most children are not better than the worst member
+        if(fitness <= members.first().fitness)
+            return false;
+
+        synchronized (this) {
+            Member worst = members.first();
+            if(fitness <= worst.fitness)
+                return false;
+
+            if(containsFitness(fitness))
+                return false;
+
+            Member member = new Member(individual, fitness, worst.slot, sequence++);
+            members.add(member);
+            members.remove(worst);
+            slots.set(worst.slot, member);
+            return true;
+        }
+    }
+
+    private boolean containsFitness(double fitness) {
+        Member equal = members.ceiling(new Member(null, fitness, -1, Long.MIN_VALUE));
+        return equal != null && Double.compare(equal.fitness, fitness) == 0;
+    }
+
+    public Individual getBest() {
+        return members.last().individual;
+    }
+
+    public double getBestFitness() {
+        return members.last().fitness;
+    }
+
+    public double getAverageFitness() {
+        return members.stream()
+                .mapToDouble(member -> member.fitness)
+                .average().orElse(0.0);
+    }
+
+    public List<Individual> getIndividuals() {
+        List<Individual> individuals = new ArrayList<>();
+        for(int i = 0; i < slots.length(); i++)
+            individuals.add(slots.get(i).individual);
+        return individuals;
+    }
+}
@@ -0,0 +1,222 @@
+package fenrir.genetic;
+
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Number of requests per hour and user group.
+ * Stored as one contiguous array indexed by hour and by the index of the user group, or, for profiles mapped from a
+ * profile store, as one read-only buffer per user group indexed by hour. Hours are time slots of getSlotSeconds().
+ */
+public class TrafficProfile {
+    public static final int DEFAULT_SLOT_SECONDS = 3600;
+
+    // [hour * numGroups + group] : NumRequests, null for mapped profiles
+    private final int[] traffic;
+
+    // group : [hour] : NumRequests, null unless mapped
+    private final IntBuffer[] columns;
+
+    private final List<String> userGroups;
+
+    // ids of the user groups, which equal their indexes, followed by names of other user groups registered while the
+    // profile is active
+    private final UserGroupRegistry registry;
+
+    // first hour of the underlying array covered by this profile (non-zero for shifted profiles)
+    private final int offset;
+
+    private final int numHours;
+
+    private final int slotSeconds;
+
+    public TrafficProfile(List<String> userGroups, int numHours) {
+        this(userGroups, numHours, new int[userGroups.size() * numHours]);
+    }
+
+    /**
+     * @param traffic Number of requests at index hour * userGroups.size() + group, which is used without copying
+     */
+    public TrafficProfile(List<String> userGroups, int numHours, int[] traffic) {
+        this(userGroups, numHours, traffic, DEFAULT_SLOT_SECONDS);
+    }
+
+    public TrafficProfile(List<String> userGroups, int numHours, int[] traffic, int slotSeconds) {
+        this(traffic, null, Collections.unmodifiableList(new ArrayList<>(userGroups)), createRegistry(userGroups), 0, numHours, slotSeconds);
+
+        if(traffic.length != userGroups.size() * numHours)
+            throw new IllegalArgumentException("Expected " + userGroups.size() * numHours + " values for " + numHours + " hours but got " + traffic.length);
+    }
+
+    /**
+     * Creates a read-only profile on the given buffers, e.g., mapped from a profile store.
+     * @param columns Number of requests per hour, one buffer per user group
+     */
+    public TrafficProfile(List<String> userGroups, int numHours, IntBuffer[] columns, int slotSeconds) {
+        this(null, columns, Collections.unmodifiableList(new ArrayList<>(userGroups)), createRegistry(userGroups), 0, numHours, slotSeconds);
+
+        if(columns.length != userGroups.size())
+            throw new IllegalArgumentException("Expected " + userGroups.size() + " columns but got " + columns.length);
+        for(IntBuffer column : columns) {
+            if(column.limit() < numHours)
+                throw new IllegalArgumentException("Expected " + numHours + " values per column but got " + column.limit());
+        }
+    }
+
+    private TrafficProfile(int[] traffic, IntBuffer[] columns, List<String> userGroups, UserGroupRegistry registry, int offset, int numHours, int slotSeconds) {
+        this.traffic = traffic;
+        this.columns = columns;
+        this.userGroups = userGroups;
+        this.registry = registry;
+        this.offset = offset;
+        this.numHours = numHours;
+        this.slotSeconds = slotSeconds;
+    }
+
+    private static UserGroupRegistry createRegistry(List<String> userGroups) {
+        UserGroupRegistry registry = new UserGroupRegistry();
+        for(int i = 0; i < userGroups.size(); i++) {
+            if(registry.register(userGroups.get(i)) != i)
+                throw new IllegalArgumentException("Duplicate user group '" + userGroups.get(i) + "'");
+        }
+        return registry;
+    }
+
+    public List<String> getUserGroups() {
+        return userGroups;
+    }
+
+    public int getNumGroups() {
+        return userGroups.size();
+    }
+
+    /**
+     * @return registry of the user groups of this profile, which App activates when scheduling with this profile
+     */
+    public UserGroupRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * @return number of hours covered by this profile
+     */
+    public int size() {
+        return numHours;
+    }
+
+    /**
+     * @return length of an hour (time slot) in seconds
+     */
+    public int getSlotSeconds() {
+        return slotSeconds;
+    }
+
+    /**
+     * @return whether the traffic is mapped from a file, in which case it cannot be modified
+     */
+    public boolean isMapped() {
+        return columns != null;
+    }
+
+    public boolean containsHour(int hour) {
+        return hour >= 0 && hour < numHours;
+    }
+
+    /**
+     * @param userGroup Name of the user group
+     * @return index of the user group, or -1 if the user group is not part of the profile
+     */
+    public int getGroupIndex(String userGroup) {
+        return getGroupIndexById(registry.find(userGroup));
+    }
+
+    /**
+     * @param groupId Id of the user group in the registry of this profile
+     * @return index of the user group, which equals its id, or -1 if the user group is not part of the profile
+     */
+    public int getGroupIndexById(int groupId) {
+        return groupId >= 0 && groupId < userGroups.size() ? groupId : -1;
+    }
+
+    /**
+     * @param group Index of the user group
+     * @return id of the user group in the registry of this profile, which equals its index
+     */
+    public int getGroupId(int group) {
+        if(group < 0 || group >= userGroups.size())
+            throw new IndexOutOfBoundsException("User group " + group + " is not part of the traffic profile (" + userGroups.size() + " user groups)");
+        return group;
+    }
+
+    public int getTraffic(int hour, int group) {
+        return value(hour, group);
+    }
+
+    public int getTraffic(int hour, String userGroup) {
+        int group = getGroupIndex(userGroup);
+        if(group < 0)
+            throw new IllegalArgumentException("Unknown user group '" + userGroup + "'");
+
+        return value(hour, group);
+    }
+
+    /**
+     * Returns the number of requests consumed when using the given share of a user group's traffic.
+     * @param hour Timeslot
+     * @param userGroup User group
+     * @param percentage Share of the user group's traffic (0..1)
+     * @return consumed number of requests
+     */
+    public long getTrafficAt(int hour, String userGroup, float percentage) {
+        return Math.round(getTraffic(hour, userGroup) * percentage);
+    }
+
+    /**
+     * Same as getTrafficAt(int, String, float), with the user group given by its id in the registry of this profile.
+     */
+    public long getTrafficAtById(int hour, int groupId, float percentage) {
+        int group = getGroupIndexById(groupId);
+        if(group < 0)
+            throw new IllegalArgumentException("Unknown user group '" + (groupId >= 0 && groupId < registry.count() ? registry.nameOf(groupId) : groupId) + "'");
+
+        return Math.round(value(hour, group) * percentage);
+    }
+
+    public void setTraffic(int hour, int group, int requests) {
+        if(traffic == null)
+            throw new UnsupportedOperationException("Mapped traffic profiles are read-only");
+
+        traffic[position(hour, group)] = requests;
+    }
+
+    /**
+     * Returns a view of this profile which starts at the given hour, i.e., hour newStart becomes hour 0.
+     * The traffic data is shared with this profile.
+     * @param newStart First hour of the new profile
+     * @return shifted profile
+     */
+    public TrafficProfile shift(int newStart) {
+        if(newStart < 0 || newStart > numHours)
+            throw new IllegalArgumentException("Cannot shift traffic profile of " + numHours + " hours to hour " + newStart);
+
+        return new TrafficProfile(traffic, columns, userGroups, registry, offset + newStart, numHours - newStart, slotSeconds);
+    }
+
+    private int value(int hour, int group) {
+        if(traffic != null)
+            return traffic[position(hour, group)];
+
+        checkHour(hour);
+        return columns[group].get(offset + hour);
+    }
+
+    private int position(int hour, int group) {
+        checkHour(hour);
+        return (offset + hour) * userGroups.size() + group;
+    }
+
+    private void checkHour(int hour) {
+        if(hour < 0 || hour >= numHours)
+            throw new IndexOutOfBoundsException("Hour " + hour + " is not covered by the traffic profile (" + numHours + " hours)");
+    }
+}
@@ -0,0 +1,101 @@
+package fenrir.genetic;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns user group names to dense ids (0, 1, 2, ...), such that user groups can be addressed by index instead of
+ * by name. Every traffic profile has its own registry, in which its user groups get the indexes of their columns as
+ * ids; names of other user groups, e.g., read from a schedule, get the ids following them.
+ * The static methods address the active registry, which App sets to the registry of the traffic profile being
+ * scheduled before any schedule is created or read. Hence ids are bounded by the user groups of one profile and do
+ * not accumulate over the jobs of the daemon. Ids stay valid as long as their registry.
+ */
+public class UserGroupRegistry {
+    // registry of the traffic profile being scheduled, or of none (e.g., when converting files)
+    private static volatile UserGroupRegistry active = new UserGroupRegistry();
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+
+    // id : name, replaced (copy on write) when a group is registered
+    private volatile String[] names = new String[0];
+
+    public UserGroupRegistry() {}
+
+    /**
+     * Makes the given registry the one addressed by the static methods, i.e., by assignments and file readers.
+     */
+    public static void activate(UserGroupRegistry registry) {
+        active = registry;
+    }
+
+    public static UserGroupRegistry getActive() {
+        return active;
+    }
+
+    /**
+     * Returns the id of a user group in the active registry, registering the group if it is not known yet.
+     * @param userGroup Name of the user group
+     * @return id of the user group
+     */
+    public static int getId(String userGroup) {
+        return active.register(userGroup);
+    }
+
+    /**
+     * @param userGroup Name of the user group
+     * @return id of the user group in the active registry, or -1 if the user group is not registered
+     */
+    public static int findId(String userGroup) {
+        return active.find(userGroup);
+    }
+
+    public static String getName(int id) {
+        return active.nameOf(id);
+    }
+
+    /**
+     * @return number of user groups registered in the active registry, i.e., all ids are smaller than this number
+     */
+    public static int size() {
+        return active.count();
+    }
+
+    /**
+     * Returns the id of a user group, registering the group if it is not known yet.
+     */
+    public int register(String userGroup) {
+        Integer id = ids.get(userGroup);
+        if(id != null)
+            return id;
+
+        synchronized (this) {
+            id = ids.get(userGroup);
+            if(id == null) {
+                String[] extended = Arrays.copyOf(names, names.length + 1);
+                id = names.length;
+                extended[id] = userGroup;
+                names = extended;
+                ids.put(userGroup, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * @return id of the user group, or -1 if the user group is not registered
+     */
+    public int find(String userGroup) {
+        Integer id = ids.get(userGroup);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        return names[id];
+    }
+
+    public int count() {
+        return names.length;
+    }
+}
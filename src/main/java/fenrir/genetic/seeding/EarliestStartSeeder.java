@@ -0,0 +1,16 @@
+package fenrir.genetic.seeding;
+
+import fenrir.Experiment;
+
+import java.util.Comparator;
+
+/**
+ * Schedules experiments by descending priority, such that experiments with a high priority start first.
+ */
+public class EarliestStartSeeder extends Seeder {
+
+    @Override
+    protected Comparator<Experiment> getOrder() {
+        return Comparator.comparingInt(Experiment::getPriority).reversed();
+    }
+}
@@ -0,0 +1,17 @@
+package fenrir.genetic.seeding;
+
+import fenrir.Experiment;
+
+import java.util.Comparator;
+
+/**
+ * Schedules experiments by ascending minimum duration, such that short experiments finish early and free their traffic
+ * for the long ones.
+ */
+public class MinDurationFirstSeeder extends Seeder {
+
+    @Override
+    protected Comparator<Experiment> getOrder() {
+        return Comparator.comparingInt(Experiment::getMinDuration);
+    }
+}
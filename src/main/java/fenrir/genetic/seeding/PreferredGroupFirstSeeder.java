@@ -0,0 +1,18 @@
+package fenrir.genetic.seeding;
+
+import fenrir.Experiment;
+
+import java.util.Comparator;
+
+/**
+ * Schedules experiments with preferred user groups first, by descending priority, such that they get the traffic of
+ * their preferred user groups before other experiments consume it.
+ */
+public class PreferredGroupFirstSeeder extends Seeder {
+
+    @Override
+    protected Comparator<Experiment> getOrder() {
+        Comparator<Experiment> preferredFirst = Comparator.comparing(e -> e.getPreferredUserGroup() == null || e.getPreferredUserGroup().isEmpty());
+        return preferredFirst.thenComparing(Comparator.comparingInt(Experiment::getPriority).reversed());
+    }
+}
@@ -0,0 +1,72 @@
+package fenrir.genetic.seeding;
+
+import fenrir.Experiment;
+import fenrir.genetic.Individual;
+import fenrir.genetic.Schedule;
+import fenrir.genetic.TrafficProfile;
+import fenrir.misc.RandomSource;
+import fenrir.misc.SampleGenerator;
+
+import java.util.*;
+
+/**
+ * Constructs an individual instead of sampling it randomly. Experiments are scheduled one after another in the order
+ * given by the seeder, each for its minimum duration at the earliest start hour where it fits next to the experiments
+ * scheduled before. Experiments use their preferred user groups, if they have any.
+ */
+public abstract class Seeder {
+
+    /**
+     * @return order in which experiments are scheduled, ties are broken randomly
+     */
+    protected abstract Comparator<Experiment> getOrder();
+
+    public Individual createIndividual(Set<Experiment> experiments, List<String> userGroups, TrafficProfile trafficProfile, Random rand) {
+        Individual individual = new Individual(RandomSource.randomUUID(rand));
+
+        List<Experiment> ordered = new ArrayList<>(experiments);
+        Collections.shuffle(ordered, rand);
+        ordered.sort(getOrder());
+
+        for(Experiment e : ordered) {
+            if(!scheduleAtEarliestStart(individual, e, getUserGroups(e, userGroups, rand), trafficProfile, rand))
+                SampleGenerator.placeExperiment(individual, e, userGroups, trafficProfile, ordered.size(), rand);
+        }
+        return individual;
+    }
+
+    private List<String> getUserGroups(Experiment e, List<String> userGroups, Random rand) {
+        if(e.getPreferredUserGroup() != null && !e.getPreferredUserGroup().isEmpty() && userGroups.containsAll(e.getPreferredUserGroup()))
+            return e.getPreferredUserGroup();
+
+        return SampleGenerator.getSubset(userGroups, rand);
+    }
+
+    /**
+     * Searches the earliest start hour day by day, then hour by hour within the day before the first feasible day.
+     * @return true, if the experiment was scheduled
+     */
+    private boolean scheduleAtEarliestStart(Individual individual, Experiment e, List<String> groups, TrafficProfile trafficProfile, Random rand) {
+        int duration = e.getMinDuration();
+
+        for(int day = 0; day + duration <= trafficProfile.size(); day += 24) {
+            if(!fits(individual, e, groups, day, duration, trafficProfile, rand))
+                continue;
+
+            for(int hour = Math.max(0, day - 23); hour < day; hour++) {
+                if(fits(individual, e, groups, hour, duration, trafficProfile, rand))
+                    return true;
+            }
+            // the shares are sampled anew, hence the day may not fit again
+            if(fits(individual, e, groups, day, duration, trafficProfile, rand))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean fits(Individual individual, Experiment e, List<String> groups, int start, int duration, TrafficProfile trafficProfile, Random rand) {
+        Schedule s = SampleGenerator.createSmartSampleSchedule(groups, e, start, duration, trafficProfile, rand);
+        individual.putSchedule(e, s);
+        return individual.isValidExperiment(e, trafficProfile);
+    }
+}
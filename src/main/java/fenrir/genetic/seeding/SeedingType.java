@@ -0,0 +1,35 @@
+package fenrir.genetic.seeding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public enum SeedingType {
+    EarliestStart,
+    MinDurationFirst,
+    PreferredGroupFirst;
+
+    public Seeder createSeeder() {
+        switch (this) {
+            case MinDurationFirst:
+                return new MinDurationFirstSeeder();
+            case PreferredGroupFirst:
+                return new PreferredGroupFirstSeeder();
+            case EarliestStart:
+            default:
+                return new EarliestStartSeeder();
+        }
+    }
+
+    /**
+     * @param types Comma-separated names of seeding types, may be empty
+     * @return seeding types in the given order
+     */
+    public static List<SeedingType> parse(String types) {
+        List<SeedingType> parsed = new ArrayList<>();
+        for(String type : types.split(",")) {
+            if(!type.trim().isEmpty())
+                parsed.add(SeedingType.valueOf(type.trim()));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,28 @@
+package fenrir.genetic.selection;
+
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Selects parents from a population. An instance is created once per generation, evaluates the fitness of the
+ * population once, and is safe to be used by several threads afterwards.
+ */
+public abstract class ParentSelection {
+    protected final List<Individual> population;
+
+    protected final double[] fitness;
+
+    protected ParentSelection(List<Individual> population, PopulationProperties props) {
+        this.population = new ArrayList<>(population);
+        this.fitness = new double[population.size()];
+
+        for(int i = 0; i < fitness.length; i++)
+            fitness[i] = this.population.get(i).getFitness(props).getValue();
+    }
+
+    public abstract Individual select(Random rand);
+}
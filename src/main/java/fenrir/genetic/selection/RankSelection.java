@@ -0,0 +1,36 @@
+package fenrir.genetic.selection;
+
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Linear ranking selection, i.e., roulette wheel selection where the weight of an individual is its rank
+ * (1 for the worst, n for the best) instead of its fitness.
+ */
+public class RankSelection extends RouletteWheelSelection {
+
+    public RankSelection(List<Individual> population, PopulationProperties props) {
+        super(population, props, ranks(population, props));
+    }
+
+    private static double[] ranks(List<Individual> population, PopulationProperties props) {
+        double[] fitness = population.stream()
+                .mapToDouble(individual -> individual.getFitness(props).getValue())
+                .toArray();
+
+        int[] order = IntStream.range(0, fitness.length).boxed()
+                .sorted(Comparator.comparingDouble(i -> fitness[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        double[] ranks = new double[fitness.length];
+        for(int rank = 0; rank < order.length; rank++)
+            ranks[order[rank]] = rank + 1;
+
+        return ranks;
+    }
+}
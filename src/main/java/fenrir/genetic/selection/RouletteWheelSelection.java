@@ -0,0 +1,61 @@
+package fenrir.genetic.selection;
+
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fitness proportionate selection. The cumulative weights are computed once, every pick is a binary search.
+ */
+public class RouletteWheelSelection extends ParentSelection {
+    private final double[] cumulative;
+
+    public RouletteWheelSelection(List<Individual> population, PopulationProperties props) {
+        super(population, props);
+        this.cumulative = cumulate(fitness);
+    }
+
+    protected RouletteWheelSelection(List<Individual> population, PopulationProperties props, double[] weights) {
+        super(population, props);
+        this.cumulative = cumulate(weights);
+    }
+
+    private static double[] cumulate(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for(int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    protected double getTotal() {
+        return cumulative.length == 0 ? 0 : cumulative[cumulative.length - 1];
+    }
+
+    @Override
+    public Individual select(Random rand) {
+        return population.get(indexOf(rand.nextDouble() * getTotal()));
+    }
+
+    /**
+     * @param value Position on the wheel, between 0 and the total weight
+     * @return index of the first individual whose cumulative weight exceeds the given value
+     */
+    protected int indexOf(double value) {
+        int low = 0, high = cumulative.length - 1;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(cumulative[mid] > value)
+                high = mid;
+            else
+                low = mid + 1;
+        }
+        // when rounding errors occur, we end up with the last item's index
+        return low;
+    }
+}
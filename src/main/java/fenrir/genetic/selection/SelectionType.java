@@ -0,0 +1,36 @@
+package fenrir.genetic.selection;
+
+import fenrir.Constants;
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.List;
+import java.util.Random;
+
+public enum SelectionType {
+    Roulette,
+    Tournament,
+    Rank,
+    StochasticUniversalSampling;
+
+    /**
+     * Prepares the selection of parents from the given population, to be called once per generation.
+     * @param population Population to select parents from
+     * @param props Population properties
+     * @param rand Random source used while preparing the selection
+     * @return parent selection for the population
+     */
+    public ParentSelection createSelection(List<Individual> population, PopulationProperties props, Random rand) {
+        switch (this) {
+            case Tournament:
+                return new TournamentSelection(population, props, Constants.TOURNAMENT_SIZE);
+            case Rank:
+                return new RankSelection(population, props);
+            case StochasticUniversalSampling:
+                return new StochasticUniversalSelection(population, props, rand);
+            case Roulette:
+            default:
+                return new RouletteWheelSelection(population, props);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package fenrir.genetic.selection;
+
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Stochastic universal sampling: places population size evenly spaced pointers on the fitness wheel using a single
+ * random offset, which yields a mating pool with less spread than repeated roulette wheel spins.
+ * Picks are drawn from the mating pool with the caller's random source, such that the result does not depend on
+ * the order in which threads request parents.
+ */
+public class StochasticUniversalSelection extends RouletteWheelSelection {
+    private final int[] matingPool;
+
+    public StochasticUniversalSelection(List<Individual> population, PopulationProperties props, Random rand) {
+        super(population, props);
+
+        int size = population.size();
+        double distance = getTotal() / size;
+        double start = rand.nextDouble() * distance;
+
+        matingPool = new int[size];
+        for(int i = 0; i < size; i++)
+            matingPool[i] = indexOf(start + i * distance);
+    }
+
+    @Override
+    public Individual select(Random rand) {
+        return population.get(matingPool[rand.nextInt(matingPool.length)]);
+    }
+}
@@ -0,0 +1,33 @@
+package fenrir.genetic.selection;
+
+import fenrir.genetic.Individual;
+import fenrir.genetic.PopulationProperties;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Picks tournamentSize random individuals and selects the fittest of them.
+ */
+public class TournamentSelection extends ParentSelection {
+    private final int tournamentSize;
+
+    public TournamentSelection(List<Individual> population, PopulationProperties props, int tournamentSize) {
+        super(population, props);
+        this.tournamentSize = tournamentSize;
+    }
+
+    @Override
+    public Individual select(Random rand) {
+        int best = -1;
+
+        for(int i = 0; i < tournamentSize; i++) {
+            int pick = rand.nextInt(population.size());
+            if(best < 0 || fitness[pick] > fitness[best]) {
+                best = pick;
+            }
+        }
+
+        return population.get(best);
+    }
+}
@@ -0,0 +1,200 @@
+package fenrir.misc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a comma separated file through a FileChannel in large blocks and parses the fields directly from the bytes,
+ * such that reading integers allocates nothing per row. Rows end with \n or \r\n; blank lines are skipped. Errors name
+ * the path, line, and column of the malformed value.
+ */
+public class CsvScanner implements Closeable {
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final String path;
+    private final FileChannel channel;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private final ByteBuffer blockBuffer = ByteBuffer.wrap(block);
+    private int position = 0;
+    private int limit = 0;
+
+    private int line = 1;
+    // line and column of the current row and field, for errors
+    private int row = 1;
+    private int column = 0;
+    // whether the current row has another field to be read
+    private boolean hasField = false;
+
+    // characters of the field read by nextFloat
+    private final StringBuilder field = new StringBuilder();
+
+    public CsvScanner(String path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+    }
+
+    /**
+     * Reads the remainder of the current line as text, e.g., the header.
+     * @return line without line break, or null at the end of the file
+     */
+    public String readLine() throws IOException {
+        if(peek() < 0)
+            return null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int c;
+        while((c = read()) >= 0 && c != '\n') {
+            if(c != '\r')
+                bytes.write(c);
+        }
+        if(c == '\n')
+            line++;
+
+        hasField = false;
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves to the next row which is not blank, skipping the fields of the current row not read yet.
+     * @return false at the end of the file
+     */
+    public boolean nextRow() throws IOException {
+        while(hasField)
+            skipField();
+
+        int c;
+        while((c = peek()) == '\n' || c == '\r') {
+            position++;
+            if(c == '\n')
+                line++;
+        }
+        if(c < 0)
+            return false;
+
+        hasField = true;
+        row = line;
+        column = 0;
+        return true;
+    }
+
+    /**
+     * @return whether the current row has another field to be read
+     */
+    public boolean hasField() {
+        return hasField;
+    }
+
+    /**
+     * Parses the next field of the current row as non-negative integer.
+     */
+    public int nextInt() throws IOException {
+        if(!hasField)
+            throw error("missing value");
+        column++;
+
+        long value = 0L;
+        int digits = 0;
+        int c;
+        while((c = read()) >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if(value > Integer.MAX_VALUE)
+                throw error("value exceeds " + Integer.MAX_VALUE);
+            digits++;
+        }
+
+        if(!isDelimiter(c))
+            throw error("invalid character '" + (char) c + "' in integer value");
+        if(digits == 0)
+            throw error("empty value");
+
+        endField(c);
+        return (int) value;
+    }
+
+    /**
+     * Parses the next field of the current row as float, with the precision of Float.parseFloat.
+     */
+    public float nextFloat() throws IOException {
+        if(!hasField)
+            throw error("missing value");
+        column++;
+
+        field.setLength(0);
+        int c;
+        while(!isDelimiter(c = read()))
+            field.append((char) c);
+
+        try {
+            float value = Float.parseFloat(field.toString());
+            endField(c);
+            return value;
+        } catch (NumberFormatException e) {
+            throw error("invalid number '" + field + "'");
+        }
+    }
+
+    public void skipField() throws IOException {
+        if(!hasField)
+            throw error("missing value");
+        column++;
+
+        int c;
+        while(!isDelimiter(c = read()));
+        endField(c);
+    }
+
+    /**
+     * @return exception for a malformed value at the current row and column
+     */
+    public IOException error(String message) {
+        return new IOException(path + ", line " + row + (column > 0 ? ", column " + column : "") + ": " + message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static boolean isDelimiter(int c) {
+        return c == ',' || c == '\n' || c == '\r' || c < 0;
+    }
+
+    private void endField(int delimiter) {
+        if(delimiter == ',')
+            return;
+
+        hasField = false;
+        if(delimiter == '\n')
+            line++;
+    }
+
+    private int peek() throws IOException {
+        if(position == limit && !fill())
+            return -1;
+        return block[position] & 0xFF;
+    }
+
+    private int read() throws IOException {
+        if(position == limit && !fill())
+            return -1;
+        return block[position++] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        blockBuffer.clear();
+        int n;
+        do {
+            n = channel.read(blockBuffer);
+        } while(n == 0);
+
+        position = 0;
+        limit = Math.max(n, 0);
+        return n > 0;
+    }
+}
@@ -7,12 +7,10 @@ import fenrir.GradualExperiment;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
-import java.security.SecureRandom;
 import java.util.*;
 
 public class ExperimentScaler {
     private static final String DEFAULT_OUT_FOLDER = "experiments";
-    private static final SecureRandom rand = new SecureRandom();
 
 
     public static void main(String[] args) {
@@ -38,6 +36,7 @@ public class ExperimentScaler {
         int numExperiments = input.size();
 
         List<Experiment> experiments = new ArrayList<>(input);
+        Random rand = RandomSource.forTask("scale");
 
         while(numExperiments < stopSize) {
             int newId = numExperiments + 1;
@@ -1,7 +1,8 @@
 package fenrir.misc;
 
+import fenrir.genetic.TrafficProfile;
+
 import java.io.*;
-import java.lang.reflect.Array;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -19,7 +20,7 @@ public class ProfileGenerator {
 //        List<Float> userGroupDist = Arrays.asList(0.8F, 0.2F);
         float controlGroupSize = 0.0F;
 
-        HashMap<Integer, HashMap<String, Integer>> trafficProfile = p.createTrafficProfile(reqPerHour, userGroups.size(), userGroups, userGroupDist, controlGroupSize);
+        TrafficProfile trafficProfile = p.createTrafficProfile(reqPerHour, userGroups.size(), userGroups, userGroupDist, controlGroupSize);
 
         p.saveAsCsv(trafficProfile, "traffic_profiles/constant_12_months.csv");
     }
@@ -27,46 +28,63 @@ public class ProfileGenerator {
     protected List<Integer> readProfile(String path) {
         ArrayList<Integer> profile = new ArrayList<>();
 
-        try (Scanner scanner = new Scanner(new File(path))) {
+        // columns: time, requests per second, requests per hour
+        try (CsvScanner scanner = new CsvScanner(path)) {
             // skip header
-            if(scanner.hasNextLine()) {
-                scanner.nextLine();
-            }
+            scanner.readLine();
 
-            while(scanner.hasNextLine()) {
-                String line = scanner.nextLine();
-                String[] arr = line.split(",");
-                profile.add(Math.round(Float.parseFloat(arr[2])));
+            while(scanner.nextRow()) {
+                scanner.skipField();
+                scanner.skipField();
+                profile.add(Math.round(scanner.nextFloat()));
             }
-        }catch(Exception e) {
-            System.out.println(e.getStackTrace());
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
         }
 
         return profile;
     }
 
-    protected void saveAsCsv(HashMap<Integer, HashMap<String, Integer>> trafficProfile, String path) {
+    protected void saveAsCsv(TrafficProfile trafficProfile, String path) {
         if(trafficProfile == null || trafficProfile.size() == 0)
             return;
 
         try (PrintWriter pw = new PrintWriter(new FileWriter(path))) {
-            List<String> userGroups = new ArrayList<String>(trafficProfile.get(0).keySet());
+            List<String> userGroups = new ArrayList<String>(trafficProfile.getUserGroups());
             Collections.sort(userGroups);
 
-            // write header, take user groups at hour 0
+            // write header
             pw.println("hour," + String.join(",", userGroups));
 
-            for(Map.Entry<Integer, HashMap<String, Integer>> entry : trafficProfile.entrySet()) {
-                pw.println(entry.getKey() + "," +
+            for(int hour = 0; hour < trafficProfile.size(); hour++) {
+                int h = hour;
+                pw.println(hour + "," +
                         String.join(",",
-                                userGroups.stream().map(userGroup -> entry.getValue().get(userGroup).toString()).collect(Collectors.toList())));
+                                userGroups.stream().map(userGroup -> Integer.toString(trafficProfile.getTraffic(h, userGroup))).collect(Collectors.toList())));
             }
         } catch (IOException e) {
             System.out.println(e.getMessage());
         }
     }
 
-    public static HashMap<Integer, HashMap<String, Integer>> readFromCsv(String path) {
+    /**
+     * Reads a traffic profile from a CSV file, or maps it if the file is a profile store compiled by ProfileStore.
+     */
+    public static TrafficProfile readTrafficProfile(String path) {
+        if(!ProfileStore.isProfileStore(path))
+            return readFromCsv(path);
+
+        try {
+            return ProfileStore.open(path);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println(path + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    public static TrafficProfile readFromCsv(String path) {
         if(path == null)
             return null;
 
@@ -74,54 +92,80 @@ public class ProfileGenerator {
         if(!f.exists() || f.isDirectory())
             return null;
 
-        HashMap<Integer, HashMap<String, Integer>> trafficProfile = new HashMap<>();
-        try (Scanner scanner = new Scanner(f)) {
+        try {
+            return parseCsv(path);
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println(path + ": " + e.getMessage());
+        }
+        return null;
+    }
 
-            // read header
-            if(!scanner.hasNextLine()) {
-                return null;
-            }
-            String line = scanner.nextLine();
-            String[] header = line.split(",");
-            assert header[0].equals("hour") : "non-hour input, currently no other formats supported";
-
-            // read content
-            while(scanner.hasNextLine()) {
-                HashMap<String, Integer> traffic = new HashMap<>();
-                line = scanner.nextLine();
-                String[] input = line.split(",");
-                for(int i = 1; i < input.length; i++) {
-                    traffic.put(header[i], Integer.parseInt(input[i]));
+    /**
+     * Parses a profile with the header "hour,group1,group2,..." and one row per hour. Hours without a row have no
+     * traffic; for hours with several rows, the last one counts. With "minute" instead of "hour", the rows are time
+     * slots of a minute, which App rejects for scheduling.
+     */
+    static TrafficProfile parseCsv(String path) throws IOException {
+        try (CsvScanner scanner = new CsvScanner(path)) {
+            String header = scanner.readLine();
+            if(header == null)
+                throw scanner.error("missing header");
+
+            String[] columns = header.split(",", -1);
+            int slotSeconds;
+            if(columns[0].equals("hour"))
+                slotSeconds = TrafficProfile.DEFAULT_SLOT_SECONDS;
+            else if(columns[0].equals("minute"))
+                slotSeconds = 60;
+            else
+                throw new IOException(path + ": the first column must be 'hour' or 'minute', other formats are not supported");
+            List<String> userGroups = Arrays.asList(columns).subList(1, columns.length);
+            int numGroups = userGroups.size();
+
+            // [hour * numGroups + group] : NumRequests, grown as rows are read
+            int[] traffic = new int[numGroups * 1024];
+            int numHours = 0;
+            while(scanner.nextRow()) {
+                int hour = scanner.nextInt();
+                if((long) (hour + 1) * numGroups > Integer.MAX_VALUE - 8)
+                    throw scanner.error("hour " + hour + " is too large");
+                if((hour + 1) * numGroups > traffic.length)
+                    traffic = Arrays.copyOf(traffic, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(2L * traffic.length, (long) (hour + 1) * numGroups)));
+
+                for(int group = 0; group < numGroups; group++) {
+                    if(!scanner.hasField())
+                        throw scanner.error("expected " + numGroups + " values after the hour but found " + group);
+                    traffic[hour * numGroups + group] = scanner.nextInt();
                 }
-                trafficProfile.put(Integer.parseInt(input[0]), traffic);
+                if(scanner.hasField())
+                    throw scanner.error("expected " + numGroups + " values after the hour but found more");
+
+                numHours = Math.max(numHours, hour + 1);
             }
-        } catch (FileNotFoundException e) {
-            System.out.println(e.getMessage());
-        }
 
-        return trafficProfile;
+            return new TrafficProfile(userGroups, numHours, Arrays.copyOf(traffic, numHours * numGroups), slotSeconds);
+        }
     }
 
-    protected HashMap<Integer, HashMap<String, Integer>> createTrafficProfile(List<Integer> reqPerHour,
-                                                                            int numUserGroups,
-                                                                            List<String> userGroups,
-                                                                            List<Float> userGroupDist, float controlGroupSize) {
+    protected TrafficProfile createTrafficProfile(List<Integer> reqPerHour,
+                                                  int numUserGroups,
+                                                  List<String> userGroups,
+                                                  List<Float> userGroupDist, float controlGroupSize) {
         // todo: think about introducing some variation (in % per user group)
 
-        // <Hour, Map<UserGroup, numRequests>>
-        HashMap<Integer, HashMap<String, Integer>> trafficProfile = new HashMap<>();
+        TrafficProfile trafficProfile = new TrafficProfile(userGroups, reqPerHour.size());
         int hour = 0;
         for(Integer totalRequests : reqPerHour) {
             int requests = totalRequests - Math.round(totalRequests * controlGroupSize);
 
-            HashMap<String, Integer> hourDist = new HashMap<>();
             for(int i = 0; i < userGroups.size(); i++) {
-                String userGroup = userGroups.get(i);
                 Float groupDist = userGroupDist.get(i);
 
-                hourDist.put(userGroup, Math.round(requests * groupDist));
+                trafficProfile.setTraffic(hour, i, Math.round(requests * groupDist));
             }
-            trafficProfile.put(hour++, hourDist);
+            hour++;
         }
 
         return trafficProfile;
@@ -0,0 +1,186 @@
+package fenrir.misc;
+
+import fenrir.genetic.TrafficProfile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Traffic profiles compiled into a binary file, which is mapped into memory when read instead of being parsed. Mapped
+ * profiles take no heap for their traffic and open in constant time, and processes reading the same file share its
+ * pages in the page cache.
+ * A profile store starts with the magic bytes "FNRP", the version of the format, the length of a time slot in seconds,
+ * the number of time slots, the number of user groups, and the offset of the traffic, followed by the names of the
+ * user groups (length and UTF-8 bytes). The traffic is stored column-major, i.e., the requests of all time slots of the
+ * first user group, then those of the second one, and so on. All numbers are little endian.
+ */
+public class ProfileStore {
+    private static final byte[] MAGIC = {'F', 'N', 'R', 'P'};
+    private static final int VERSION = 1;
+
+    // magic, version, slot seconds, number of slots, number of groups, offset of the traffic
+    private static final int HEADER_SIZE = 24;
+
+    private ProfileStore() {}
+
+    /**
+     * @return true, if the file starts with the magic bytes of a profile store
+     */
+    public static boolean isProfileStore(String path) {
+        if(path == null)
+            return false;
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while(magic.hasRemaining() && channel.read(magic) >= 0);
+            return Arrays.equals(magic.array(), MAGIC);
+        } catch (IOException | InvalidPathException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compiles a traffic profile given as CSV (see ProfileGenerator.readFromCsv) into a profile store.
+     */
+    public static void compile(String csvPath, String storePath) {
+        try {
+            TrafficProfile profile = ProfileGenerator.parseCsv(csvPath);
+            write(profile, storePath);
+            System.out.println("Compiled traffic profile " + csvPath + " (" + profile.size() + " slots of " + profile.getSlotSeconds() + " seconds, "
+                    + profile.getNumGroups() + " user groups) to " + storePath + " (" + Files.size(Paths.get(storePath)) + " bytes)");
+        } catch (IOException e) {
+            System.out.println(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println(csvPath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the profile to a temporary file next to the given path and renames it afterwards, such that processes
+     * which mapped the previous file keep reading it unchanged.
+     */
+    public static void write(TrafficProfile profile, String path) throws IOException {
+        int numGroups = profile.getNumGroups();
+        int numSlots = profile.size();
+
+        ByteBuffer names = ByteBuffer.allocate(numGroups * 2 + profile.getUserGroups().stream().mapToInt(group -> group.getBytes(StandardCharsets.UTF_8).length).sum())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for(String group : profile.getUserGroups()) {
+            byte[] name = group.getBytes(StandardCharsets.UTF_8);
+            if(name.length > 0xFFFF)
+                throw new IOException("Name of user group '" + group.substring(0, 20) + "...' is too long");
+            names.putShort((short) name.length).put(name);
+        }
+        names.flip();
+
+        // align the traffic to 8 bytes
+        int dataOffset = (HEADER_SIZE + names.limit() + 7) & ~7;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(MAGIC).putInt(VERSION).putInt(profile.getSlotSeconds()).putInt(numSlots).putInt(numGroups).putInt(dataOffset);
+        header.flip();
+
+        Path target = Paths.get(path);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeFully(channel, names);
+            writeFully(channel, ByteBuffer.allocate(dataOffset - HEADER_SIZE - names.limit()));
+
+            ByteBuffer block = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for(int group = 0; group < numGroups; group++) {
+                for(int slot = 0; slot < numSlots; slot++) {
+                    if(!block.hasRemaining()) {
+                        block.flip();
+                        writeFully(channel, block);
+                        block.clear();
+                    }
+                    block.putInt(profile.getTraffic(slot, group));
+                }
+            }
+            block.flip();
+            writeFully(channel, block);
+        }
+
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a profile store read-only. Only the header is read, the traffic is paged in on access.
+     */
+    public static TrafficProfile open(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if(size < HEADER_SIZE)
+                throw corrupt(path);
+
+            ByteBuffer header = readFully(channel, 0, HEADER_SIZE);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if(!Arrays.equals(magic, MAGIC))
+                throw new IOException(path + " is no traffic profile store");
+
+            int version = header.getInt();
+            if(version != VERSION)
+                throw new IOException(path + " has version " + version + " of the profile store format, expected " + VERSION);
+
+            int slotSeconds = header.getInt();
+            int numSlots = header.getInt();
+            int numGroups = header.getInt();
+            int dataOffset = header.getInt();
+            if(slotSeconds <= 0 || numSlots < 0 || numGroups < 0 || dataOffset < HEADER_SIZE || dataOffset + 4L * numSlots * numGroups != size)
+                throw corrupt(path);
+
+            List<String> userGroups = new ArrayList<>(numGroups);
+            ByteBuffer names = readFully(channel, HEADER_SIZE, dataOffset - HEADER_SIZE);
+            for(int group = 0; group < numGroups; group++) {
+                if(names.remaining() < 2)
+                    throw corrupt(path);
+                byte[] name = new byte[names.getShort() & 0xFFFF];
+                if(names.remaining() < name.length)
+                    throw corrupt(path);
+                names.get(name);
+                userGroups.add(new String(name, StandardCharsets.UTF_8));
+            }
+
+            // one mapping per user group, such that a column may take up to 2 GB
+            if(4L * numSlots > Integer.MAX_VALUE)
+                throw new IOException(path + " has more than " + Integer.MAX_VALUE / 4 + " time slots");
+            IntBuffer[] columns = new IntBuffer[numGroups];
+            for(int group = 0; group < numGroups; group++) {
+                columns[group] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + 4L * numSlots * group, 4L * numSlots)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asIntBuffer();
+            }
+
+            return new TrafficProfile(userGroups, numSlots, columns, slotSeconds);
+        }
+    }
+
+    private static IOException corrupt(String path) {
+        return new IOException(path + " is truncated or corrupt");
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of file");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
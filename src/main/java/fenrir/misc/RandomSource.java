@@ -0,0 +1,149 @@
+package fenrir.misc;
+
+import java.security.SecureRandom;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Hands out fast, non-synchronized random generators which are derived from one master seed.
+ * Every task (e.g., producing one child in one generation) gets its own generator, identified by a name and a
+ * number of keys, such that a run is reproducible for a given seed regardless of how tasks are spread over threads.
+ */
+public class RandomSource {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private static volatile long seed = new SecureRandom().nextLong();
+
+    private RandomSource() {}
+
+    public static long getSeed() {
+        return seed;
+    }
+
+    public static void setSeed(long masterSeed) {
+        seed = masterSeed;
+    }
+
+    /**
+     * Returns a new generator for the given task. The same task and keys always yield the same sequence for the same
+     * master seed. The generator must not be shared between threads.
+     * @param task Name of the task, e.g., "evolve"
+     * @param keys Identifies the task instance, e.g., generation and index of the child
+     * @return random generator for the task
+     */
+    public static Random forTask(String task, long... keys) {
+        long state = mix64(seed ^ task.hashCode());
+        for(long key : keys)
+            state = mix64(state + GOLDEN_GAMMA * (key + 1));
+
+        return new SplitMix64(state);
+    }
+
+    /**
+     * Returns the state of a generator handed out by this class, from which {@link #fromState(long)} continues the
+     * sequence of the generator, e.g., after a run is resumed from a checkpoint.
+     */
+    public static long getState(Random rand) {
+        if(!(rand instanceof SplitMix64))
+            throw new IllegalArgumentException("Generator was not created by RandomSource");
+        return ((SplitMix64) rand).state;
+    }
+
+    public static Random fromState(long state) {
+        return new SplitMix64(state);
+    }
+
+    /**
+     * Creates a (version 4) UUID from the given generator instead of the shared SecureRandom of UUID.randomUUID().
+     */
+    public static UUID randomUUID(Random rand) {
+        long mostSigBits = (rand.nextLong() & ~0xF000L) | 0x4000L;
+        long leastSigBits = (rand.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    // finalizer of SplitMix64
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * SplitMix64, i.e., the algorithm of SplittableRandom (yielding the same sequences), exposed as java.util.Random
+     * such that it can be used with Collections.shuffle etc. Unlike SplittableRandom, its state can be saved and
+     * restored, see {@link #getState(Random)}.
+     */
+    private static class SplitMix64 extends Random {
+        private static final long serialVersionUID = 1L;
+
+        private long state;
+
+        private SplitMix64(long state) {
+            super(0L);
+            this.state = state;
+        }
+
+        @Override
+        public void setSeed(long seed) {
+            // also called by the constructor of Random, before the state is set by the own constructor
+            this.state = seed;
+        }
+
+        private long nextState() {
+            return state += GOLDEN_GAMMA;
+        }
+
+        private static int mix32(long z) {
+            z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+            return (int)(((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+        }
+
+        @Override
+        protected int next(int bits) {
+            return nextInt() >>> (32 - bits);
+        }
+
+        @Override
+        public int nextInt() {
+            return mix32(nextState());
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            if(bound <= 0)
+                throw new IllegalArgumentException("bound must be positive");
+
+            int r = nextInt();
+            int m = bound - 1;
+            if((bound & m) == 0) {
+                r &= m;
+            }else {
+                // reject over-represented candidates
+                for(int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1)
+                    ;
+            }
+            return r;
+        }
+
+        @Override
+        public long nextLong() {
+            return mix64(nextState());
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return nextInt() < 0;
+        }
+
+        @Override
+        public float nextFloat() {
+            return (nextInt() >>> 8) * 0x1.0p-24f;
+        }
+
+        @Override
+        public double nextDouble() {
+            return (nextLong() >>> 11) * 0x1.0p-53;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package fenrir.misc;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps parsed files in memory, keyed by their absolute path. A file is parsed again if it was modified since, i.e., if
+ * its modification time or length changed. Files which cannot be parsed (the parser returns null) are not cached.
+ * Cached values are shared by all callers, hence they must not be modified.
+ */
+public class ResourceCache<T> {
+    private final Function<String, T> parser;
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    public ResourceCache(Function<String, T> parser) {
+        this.parser = parser;
+    }
+
+    public T get(String path) {
+        if(path == null)
+            return null;
+
+        File file = new File(path);
+        String key = file.getAbsolutePath();
+        long modified = file.lastModified();
+        long length = file.length();
+
+        Entry<T> entry = entries.get(key);
+        if(entry != null && entry.modified == modified && entry.length == length)
+            return entry.value;
+
+        T value = parser.apply(path);
+        if(value != null)
+            entries.put(key, new Entry<>(value, modified, length));
+        else
+            entries.remove(key);
+        return value;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static class Entry<T> {
+        private final T value;
+        private final long modified;
+        private final long length;
+
+        private Entry(T value, long modified, long length) {
+            this.value = value;
+            this.modified = modified;
+            this.length = length;
+        }
+    }
+}
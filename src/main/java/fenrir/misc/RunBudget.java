@@ -0,0 +1,80 @@
+package fenrir.misc;
+
+import fenrir.Constants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds a run by wall-clock time and by patience, i.e., the number of steps (generations, iterations, evaluations, or
+ * samples, depending on the algorithm) without improvement of the best fitness. Both are disabled by non-positive
+ * values, in which case only the fixed counts of the algorithm stop the run.
+ * A budget must not be shared between threads, except for {@link #isTimeUp()}; use {@link #fork()} instead.
+ */
+public class RunBudget {
+    private final boolean limited;
+    private final long deadline;
+    private final int patience;
+
+    private double bestFitness = Double.NEGATIVE_INFINITY;
+    private long lastImprovement = 0L;
+
+    public RunBudget(int seconds, int patience) {
+        this(seconds > 0, System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(0, seconds)), patience);
+    }
+
+    private RunBudget(boolean limited, long deadline, int patience) {
+        this.limited = limited;
+        this.deadline = deadline;
+        this.patience = patience;
+    }
+
+    /**
+     * @return budget starting now, as configured by TIME_BUDGET_SECONDS and PATIENCE
+     */
+    public static RunBudget fromConstants() {
+        return new RunBudget(Constants.TIME_BUDGET_SECONDS, Constants.PATIENCE);
+    }
+
+    /**
+     * @return budget with the same deadline, but its own patience
+     */
+    public RunBudget fork() {
+        return new RunBudget(limited, deadline, patience);
+    }
+
+    public boolean isTimeUp() {
+        return limited && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Records the best fitness reached at the given step.
+     * @return true, if the fitness is better than any recorded before
+     */
+    public boolean improve(double fitness, long step) {
+        if(fitness <= bestFitness)
+            return false;
+
+        bestFitness = fitness;
+        lastImprovement = step;
+        return true;
+    }
+
+    public boolean isStalled(long step) {
+        return patience > 0 && step - lastImprovement >= patience;
+    }
+
+    public boolean isExhausted(long step) {
+        return isTimeUp() || isStalled(step);
+    }
+
+    /**
+     * @return why the run stops at the given step, or null if the budget is not exhausted
+     */
+    public String getStopReason(long step) {
+        if(isTimeUp())
+            return "time budget exhausted";
+        if(isStalled(step))
+            return "no improvement for " + patience + " steps";
+        return null;
+    }
+}
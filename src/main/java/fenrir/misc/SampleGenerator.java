@@ -1,62 +1,62 @@
 package fenrir.misc;
 
+import fenrir.Constants;
 import fenrir.Experiment;
 import fenrir.ExperimentType;
 import fenrir.GradualExperiment;
 import fenrir.genetic.Assignment;
 import fenrir.genetic.Individual;
 import fenrir.genetic.Schedule;
+import fenrir.genetic.TrafficProfile;
+import fenrir.genetic.seeding.SeedingType;
 
-import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class SampleGenerator {
-    private static final SecureRandom rand = new SecureRandom();
-
-    public static Set<Experiment> createSampleExperiments(int numExperiments, List<String> userGroups, List<String> targetServices) {
+    public static Set<Experiment> createSampleExperiments(int numExperiments, List<String> userGroups, List<String> targetServices, Random rand) {
 
         Set<Experiment> experiments = new HashSet<>();
 
         IntStream.rangeClosed(1, numExperiments)
                 .forEach(i -> experiments.add(
                         // between 5 and 24 days
-                        SampleGenerator.createSampleExperiment(i, 120 + rand.nextInt(240), userGroups, targetServices, 10, 20000000, 30000000)));
+                        SampleGenerator.createSampleExperiment(i, 120 + rand.nextInt(240), userGroups, targetServices, 10, 20000000, 30000000, rand)));
 //        SampleGenerator.createSampleExperiment(i, 48, userGroups, targetServices, 10, 50000, 100000)));
 
 
         return experiments;
     }
 
-    public static Experiment createSampleExperiment(int id, int minDuration, List<String> userGroups, List<String> targetServices, int maxPriority, int minTotalTraffic, int maxTotalTraffic) {
+    public static Experiment createSampleExperiment(int id, int minDuration, List<String> userGroups, List<String> targetServices, int maxPriority, int minTotalTraffic, int maxTotalTraffic, Random rand) {
         int totalTraffic = minTotalTraffic + rand.nextInt(maxTotalTraffic - minTotalTraffic);
 
         if((rand.nextInt(3) + 1) % 3 == 0)
             return new GradualExperiment(
                     id,
-                    ExperimentType.randomExperimentType(),
+                    ExperimentType.randomExperimentType(rand),
                     targetServices.get(rand.nextInt(targetServices.size())),
                     minDuration,
                     totalTraffic,
                     rand.nextInt(maxPriority + 1),
                     0.0001F * totalTraffic,
-                    getPreferredUserGroups(userGroups)
+                    getPreferredUserGroups(userGroups, rand)
             );
         else
             return new Experiment(
                     id,
-                    ExperimentType.randomExperimentType(),
+                    ExperimentType.randomExperimentType(rand),
                     targetServices.get(rand.nextInt(targetServices.size())),
                     minDuration,
                     totalTraffic,
                     rand.nextInt(maxPriority + 1),
-                    getPreferredUserGroups(userGroups));
+                    getPreferredUserGroups(userGroups, rand));
     }
 
-    public static List<String> getPreferredUserGroups(List<String> userGroups) {
+    public static List<String> getPreferredUserGroups(List<String> userGroups, Random rand) {
         List<String> groups = new ArrayList<>(userGroups);
-        Collections.shuffle(groups);
+        Collections.shuffle(groups, rand);
 
         if(rand.nextBoolean())
             return null;
@@ -66,9 +66,9 @@ public class SampleGenerator {
         return groups.subList(0, num);
     }
 
-    public static List<String> getSubset(List<String> userGroups) {
+    public static List<String> getSubset(List<String> userGroups, Random rand) {
         List<String> groups = new ArrayList<>(userGroups);
-        Collections.shuffle(groups);
+        Collections.shuffle(groups, rand);
 
         int num;
 //        if(rand.nextFloat() < 0.8)
@@ -79,7 +79,7 @@ public class SampleGenerator {
         return groups.subList(0, num);
     }
 
-    public static Map<String,Float> createSampleRatio(List<String> userGroups) {
+    public static Map<String,Float> createSampleRatio(List<String> userGroups, Random rand) {
         HashMap<String,Float> ratio = new HashMap<>();
 
         int remaining = 100;
@@ -94,43 +94,58 @@ public class SampleGenerator {
         return ratio;
     }
 
-    public static Schedule createSmartSampleSchedule(List<String> userGroups, Experiment e, int startTimeSlot, HashMap<Integer, HashMap<String, Integer>> trafficProfile, int numExperiments) {
-        List<Assignment> assignments = new ArrayList<>();
-
-        List<String> ug = getSubset(userGroups);
+    public static Schedule createSmartSampleSchedule(List<String> userGroups, Experiment e, int startTimeSlot, TrafficProfile trafficProfile, int numExperiments, Random rand) {
+        List<String> ug = getSubset(userGroups, rand);
 
         int startHour = startTimeSlot + rand.nextInt(24*numExperiments*2); // experiments start within numExperiment days
 
         int duration = e.getMinDuration() + rand.nextInt(24 * numExperiments/2);
 
-        Map<String, Float> ratio = createSampleRatio(ug);
-
-        IntStream.range(startHour, startHour + duration)
-                .forEach(timeSlot -> {
-                    Assignment a = new Assignment();
-                    a.setHour(timeSlot);
-                    a.setTrafficAssignment(new HashMap<>());
-
-                    long minTraffic = e.getMinTrafficAt(timeSlot - startHour, duration);
+        return createSmartSampleSchedule(ug, e, startHour, duration, trafficProfile, rand);
+    }
 
-                    Map<String,Float> required = ratio.entrySet().stream()
-                            .collect(Collectors.toMap((Map.Entry<String,Float> entry) -> entry.getKey(), (Map.Entry<String,Float> entry) -> entry.getValue() * minTraffic / trafficProfile.get(timeSlot).get(entry.getKey())));
+    /**
+     * Creates a schedule starting exactly at the given hour, which splits the minimum traffic of the experiment among
+     * the given user groups by a random ratio.
+     */
+    public static Schedule createSmartSampleSchedule(List<String> ug, Experiment e, int startHour, int duration, TrafficProfile trafficProfile, Random rand) {
+        List<Assignment> assignments = new ArrayList<>(duration);
+
+        Map<String, Float> ratio = createSampleRatio(ug, rand);
+
+        // resolve the user groups once instead of per hour
+        int numGroups = ratio.size();
+        int[] groupIds = new int[numGroups];
+        int[] columns = new int[numGroups];
+        float[] shares = new float[numGroups];
+        int g = 0;
+        for(Map.Entry<String, Float> entry : ratio.entrySet()) {
+            columns[g] = trafficProfile.getGroupIndex(entry.getKey());
+            if(columns[g] < 0)
+                throw new IllegalArgumentException("Unknown user group '" + entry.getKey() + "'");
+
+            groupIds[g] = trafficProfile.getGroupId(columns[g]);
+            shares[g] = entry.getValue();
+            g++;
+        }
 
-                    required.entrySet().stream()
-                            .forEach(entry -> a.getTrafficAssignment().put(entry.getKey(), (float) Math.ceil(entry.getValue() * 1000) / 1000.0F));
+        for(int timeSlot = startHour; timeSlot < startHour + duration; timeSlot++) {
+            Assignment a = new Assignment();
+            a.setHour(timeSlot);
 
-                    assignments.add(a);
+            long minTraffic = e.getMinTrafficAt(timeSlot - startHour, duration);
 
-//                    long available = trafficProfile.get(timeSlot).get(userGroup);
-//                    HashMap<String, Float> traffic = new HashMap<>();
-//                    traffic.put(userGroup, (float) Math.ceil(minTraffic * 1000 / (float) available) / 1000.F);
-//                    a.setTrafficAssignment(traffic);
+            for(g = 0; g < numGroups; g++) {
+                float required = shares[g] * minTraffic / trafficProfile.getTraffic(timeSlot, columns[g]);
+                a.setTraffic(groupIds[g], (float) Math.ceil(required * 1000) / 1000.0F);
+            }
 
-                });
+            assignments.add(a);
+        }
         return new Schedule(startHour, assignments);
     }
 
-    public static <E> E choice(Collection<? extends E> coll, SecureRandom random) {
+    public static <E> E choice(Collection<? extends E> coll, Random random) {
         if (coll.size() == 0) {
             return null; // or throw IAE, if you prefer
         }
@@ -147,78 +162,124 @@ public class SampleGenerator {
         }
     }
 
-    public static List<Individual> createPopulation(int size, Set<Experiment> experiments, List<String> userGroups, HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    public static List<Individual> createPopulation(int size, Set<Experiment> experiments, List<String> userGroups, TrafficProfile trafficProfile) {
+        return createPopulation(size, 0, experiments, userGroups, trafficProfile);
+    }
+
+    /**
+     * Creates a batch of a population which is sampled in batches.
+     * @param offset Index of the first individual of the batch; only the first batch contains seeded individuals
+     */
+    public static List<Individual> createPopulation(int size, int offset, Set<Experiment> experiments, List<String> userGroups, TrafficProfile trafficProfile) {
         if(experiments == null)
             return null;
 
-        List<Individual> population = new ArrayList<>();
         int numExperiments = experiments.size();
 
-        IntStream.range(0, size).parallel()
-                .forEach(item -> {
-                    Individual individual = new Individual(UUID.randomUUID());
+        // the first individuals are constructed by the seeders in turn, the others are sampled randomly
+        List<SeedingType> seedingTypes = SeedingType.parse(Constants.SEEDING_TYPES);
+        int numSeeded = seedingTypes.isEmpty() ? 0 : Math.round(size * Constants.SEEDING_SHARE);
+
+        return IntStream.range(0, size).parallel()
+                .mapToObj(item -> {
+                    int index = offset + item;
+                    Random rand = RandomSource.forTask("population", index);
+
+                    if(index < numSeeded) {
+                        SeedingType type = seedingTypes.get(index % seedingTypes.size());
+                        Individual seeded = type.createSeeder().createIndividual(experiments, userGroups, trafficProfile, rand);
+                        System.out.println("Created individual " + (index + 1) + " (" + type + ")");
+                        return seeded;
+                    }
+
+                    Individual individual = new Individual(RandomSource.randomUUID(rand));
 
                     LinkedList<Experiment> remaining = new LinkedList<>(experiments);
-                    Collections.shuffle(remaining);
+                    Collections.shuffle(remaining, rand);
 
                     while(remaining.size() > 0) {
                         Experiment next = remaining.removeFirst();
+                        placeExperiment(individual, next, userGroups, trafficProfile, numExperiments, rand);
+                    }
+                    System.out.println("Created individual " + (index + 1));
+                    return individual;
+                })
+                .collect(Collectors.toList());
+    }
 
-                        Schedule s;
-                        int counter=0;
-                        int startTime = 0;
-                        do {
-                            s = createSmartSampleSchedule(userGroups, next, startTime, trafficProfile, numExperiments);
-                            individual.getScheduledExperiments().put(next, s);
+    /**
+     * Schedules an experiment in an individual whose experiments scheduled so far are valid. Only the new experiment is
+     * checked, i.e., against the traffic consumed by the experiments scheduled so far. Random schedules are tried up to
+     * SAMPLING_MAX_ATTEMPTS times, moving the window of start hours one day ahead every 10 attempts. If no random schedule
+     * fits, the experiment is scheduled for its minimum duration right after the last hour used on its target service,
+     * where no traffic is consumed yet.
+     * @throws IllegalStateException if the experiment cannot be scheduled at all
+     */
+    public static void placeExperiment(Individual individual, Experiment e, List<String> userGroups, TrafficProfile trafficProfile, int numExperiments, Random rand) {
+        int startTime = 0;
+        for(int attempt = 1; attempt <= Constants.SAMPLING_MAX_ATTEMPTS; attempt++) {
+            individual.putSchedule(e, createSmartSampleSchedule(userGroups, e, startTime, trafficProfile, numExperiments, rand));
+            if(individual.isValidExperiment(e, trafficProfile))
+                return;
+
+            if(attempt % 10 == 0)
+                startTime += 24;
+        }
 
-                            counter++;
-                            if(counter % 10 == 0)
-                                startTime += 24;
-                        } while (!individual.isValid(trafficProfile));
-                    }
-                    population.add(individual);
-                    System.out.println("Created individual " + (item + 1));
-                });
+        int freeFrom = individual.getScheduledExperiments().entrySet().stream()
+                .filter(entry -> entry.getKey() != e && entry.getKey().getTargetService().equals(e.getTargetService()))
+                .mapToInt(entry -> entry.getValue().getStartSlot() + entry.getValue().getDuration())
+                .max().orElse(0);
+
+        if(freeFrom + e.getMinDuration() <= trafficProfile.size()) {
+            for(int attempt = 0; attempt < Constants.SAMPLING_MAX_ATTEMPTS; attempt++) {
+                individual.putSchedule(e, createSmartSampleSchedule(getSubset(userGroups, rand), e, freeFrom, e.getMinDuration(), trafficProfile, rand));
+                if(individual.isValidExperiment(e, trafficProfile))
+                    return;
+            }
+        }
 
-        return population;
+        throw new IllegalStateException("Could not schedule experiment " + e.getId() + " within " + Constants.SAMPLING_MAX_ATTEMPTS + " attempts");
     }
 
-    public static List<Individual> createPopulationForRestart(int size, Individual individual, List<String> userGroups, int timeSlot, HashMap<Integer, HashMap<String, Integer>> trafficProfile) {
+    public static List<Individual> createPopulationForRestart(int size, Individual individual, List<String> userGroups, int timeSlot, TrafficProfile trafficProfile) {
         if(individual == null)
             return null;
 
         Set<Experiment> experiments = individual.getExperiments();
-        List<Individual> population = new ArrayList<>();
         int numExperiments = experiments.size();
 
-        IntStream.range(0, size).parallel()
-                .forEach(item -> {
-                    Individual i = new Individual(UUID.randomUUID());
+        return IntStream.range(0, size).parallel()
+                .mapToObj(item -> {
+                    Random rand = RandomSource.forTask("restartPopulation", item);
+                    Individual i = new Individual(RandomSource.randomUUID(rand));
 
                     LinkedList<Experiment> remaining = new LinkedList<>(experiments);
-                    Collections.shuffle(remaining);
+                    Collections.shuffle(remaining, rand);
 
                     while(remaining.size() > 0) {
                         Experiment next = remaining.removeFirst();
 
-                        Schedule s;
+                        int attempts = 0;
                         do {
-                            s = createSampleScheduleFromExisting(next, individual.getScheduledExperiments().get(next), timeSlot, userGroups, item == 0, trafficProfile, numExperiments);
-                            i.getScheduledExperiments().put(next, s);
-                        } while (!i.isValid(trafficProfile));
+                            if(attempts++ == Constants.SAMPLING_MAX_ATTEMPTS)
+                                throw new IllegalStateException("Could not schedule experiment " + next.getId() + " within " + Constants.SAMPLING_MAX_ATTEMPTS + " attempts");
+
+                            Schedule s = createSampleScheduleFromExisting(next, individual.getScheduledExperiments().get(next), timeSlot, userGroups, item == 0, trafficProfile, numExperiments, rand);
+                            i.putSchedule(next, s);
+                        } while (!i.isValidExperiment(next, trafficProfile));
                     }
-                    population.add(i);
                     System.out.println("Created individual " + (item + 1));
-                });
-
-        return population;
+                    return i;
+                })
+                .collect(Collectors.toList());
     }
 
-    private static Schedule createSampleScheduleFromExisting(Experiment experiment, Schedule schedule, int timeSlot, List<String> userGroups, boolean first, HashMap<Integer, HashMap<String, Integer>> trafficProfile, int numExperiments) {
+    private static Schedule createSampleScheduleFromExisting(Experiment experiment, Schedule schedule, int timeSlot, List<String> userGroups, boolean first, TrafficProfile trafficProfile, int numExperiments, Random rand) {
 
         // new experiment
         if(schedule == null) {
-            return createSmartSampleSchedule(userGroups, experiment, timeSlot, trafficProfile, numExperiments);
+            return createSmartSampleSchedule(userGroups, experiment, timeSlot, trafficProfile, numExperiments, rand);
         }
 
         // running business experiment, take existing schedule and adapt to new time slots
@@ -232,10 +293,9 @@ public class SampleGenerator {
                         Assignment n = new Assignment();
 
                         n.setHour(assignment.getHour() - timeSlot);
-                        n.setTrafficAssignment(new HashMap<>());
 
                         assignment.getTrafficAssignment().entrySet().stream()
-                                .forEach(entry -> n.getTrafficAssignment().put(entry.getKey(), entry.getValue() + 0.0001F)); // buffer value
+                                .forEach(entry -> n.setTraffic(entry.getKey(), entry.getValue() + 0.0001F)); // buffer value
 
                         return n;
                     })
@@ -244,6 +304,6 @@ public class SampleGenerator {
             return new Schedule(experiment.isRestarted() ? 0 : schedule.getStartSlot() - timeSlot, assignments);
         }
 
-        return createSmartSampleSchedule(userGroups, experiment, timeSlot, trafficProfile, numExperiments);
+        return createSmartSampleSchedule(userGroups, experiment, timeSlot, trafficProfile, numExperiments, rand);
     }
 }
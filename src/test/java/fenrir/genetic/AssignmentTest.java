@@ -0,0 +1,122 @@
+package fenrir.genetic;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class AssignmentTest {
+    // ids of the user groups assignment_group0 ... assignment_group69, such that some ids are 64 or more apart
+    private static int[] registerGroups() {
+        int[] ids = new int[70];
+        for(int i = 0; i < ids.length; i++)
+            ids[i] = UserGroupRegistry.getId("assignment_group" + i);
+        return ids;
+    }
+
+    @Test
+    public void keepGroupsSortedById() {
+        int[] ids = registerGroups();
+        Assignment assignment = new Assignment();
+        assignment.setTraffic(ids[69], 0.3F);
+        assignment.setTraffic(ids[2], 0.1F);
+        assignment.setTraffic(ids[40], 0.2F);
+        assignment.setTraffic(ids[2], 0.15F);
+
+        assertEquals(3, assignment.getNumGroups());
+        assertEquals(ids[2], assignment.getGroupIdAt(0));
+        assertEquals(ids[40], assignment.getGroupIdAt(1));
+        assertEquals(ids[69], assignment.getGroupIdAt(2));
+        assertEquals(0.15F, assignment.getShareAt(0), 0.0F);
+        assertEquals(0.3F, assignment.getTraffic(ids[69]), 0.0F);
+        assertEquals(0.0F, assignment.getTraffic(ids[3]), 0.0F);
+        assertEquals(0.3F, assignment.getMaxTraffic(), 0.0F);
+        assertTrue(assignment.getGroups().get(ids[40]));
+        assertEquals(3, assignment.getGroups().cardinality());
+    }
+
+    @Test
+    public void equalRegardlessOfHistory() {
+        int[] ids = registerGroups();
+        Assignment a = new Assignment();
+        a.setHour(4);
+        a.setTraffic(ids[1], 0.5F);
+        a.setTraffic(ids[65], 0.25F);
+
+        // same user groups added in another order, and a user group added and removed again
+        Assignment b = new Assignment();
+        b.setHour(4);
+        b.setTraffic(ids[69], 0.1F);
+        b.setTraffic(ids[65], 0.25F);
+        b.setTraffic(ids[1], 0.5F);
+        b.removeGroup(ids[69]);
+
+        assertTrue(a.hasSameGroups(b));
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+
+        b.setTraffic(ids[1], 0.4F);
+        assertTrue(a.hasSameGroups(b));
+        assertFalse(a.equals(b));
+
+        b.removeGroup(ids[1]);
+        b.removeGroup(ids[65]);
+        Assignment empty = new Assignment();
+        empty.setHour(4);
+        assertEquals(empty, b);
+        assertEquals(empty.hashCode(), b.hashCode());
+    }
+
+    @Test
+    public void copyIndependently() {
+        int[] ids = registerGroups();
+        Assignment original = new Assignment();
+        original.setTraffic(ids[0], 0.5F);
+        original.setTraffic(ids[10], 0.2F);
+
+        Assignment copy = original.copyAssignment();
+        assertEquals(original, copy);
+
+        copy.setTraffic(ids[0], 0.9F);
+        copy.setTraffic(ids[5], 0.1F);
+        copy.removeGroup(ids[10]);
+
+        assertEquals(2, original.getNumGroups());
+        assertEquals(0.5F, original.getTraffic(ids[0]), 0.0F);
+        assertEquals(0.2F, original.getTraffic(ids[10]), 0.0F);
+        assertFalse(original.hasGroup(ids[5]));
+    }
+
+    @Test
+    public void writeThroughMapView() {
+        int[] ids = registerGroups();
+        Assignment assignment = new Assignment();
+        Map<String, Float> view = assignment.getTrafficAssignment();
+
+        view.put("assignment_group3", 0.3F);
+        view.put("assignment_group1", 0.1F);
+        view.put("assignment_group2", 0.2F);
+        assertEquals(3, view.size());
+        assertEquals(Float.valueOf(0.2F), view.get("assignment_group2"));
+        assertNull(view.get("assignment_group4"));
+
+        // removing while iterating must not skip the following user group
+        Iterator<Map.Entry<String, Float>> iterator = view.entrySet().iterator();
+        assertEquals("assignment_group1", iterator.next().getKey());
+        iterator.remove();
+        assertEquals("assignment_group2", iterator.next().getKey());
+        assertEquals("assignment_group3", iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+
+        assertEquals(Float.valueOf(0.3F), view.remove("assignment_group3"));
+        assertEquals(1, assignment.getNumGroups());
+        assertEquals(ids[2], assignment.getGroupIdAt(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectUnknownUserGroup() {
+        new Assignment().setTraffic("assignment_group_never_registered", 0.1F);
+    }
+}
@@ -0,0 +1,149 @@
+package fenrir.genetic;
+
+import fenrir.App;
+import fenrir.Checkpoint;
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import fenrir.GradualExperiment;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryFormatTest {
+    private static final String JSON = "population_test.json";
+    private static final String BIN = "population_test.bin";
+    private static final String JSON_AGAIN = "population_test_2.json";
+    private static final String TRUNCATED = "truncated_test.bin";
+
+    // more than 64 user groups, such that the group sets of assignments take more than one word
+    private static final int NUM_GROUPS = 70;
+
+    private static String group(int i) {
+        return "binary_group" + i;
+    }
+
+    private static List<Individual> createPopulation() {
+        for(int i = 0; i < NUM_GROUPS; i++)
+            UserGroupRegistry.getId(group(i));
+
+        Experiment regression = new Experiment(1, ExperimentType.REGRESSION, "service1", 3, 5000L, 2, Arrays.asList(group(0), group(69)));
+        Experiment gradual = new GradualExperiment(2, ExperimentType.BUSINESS, "service2", 2, 1000L, 1, 0.05F, null);
+        Experiment unscheduled = new Experiment(3, ExperimentType.REGRESSION, "service3", 1, 100L, 3, null);
+
+        List<Individual> population = new ArrayList<>();
+        for(int i = 0; i < 3; i++) {
+            Individual individual = new Individual(new UUID(i, 42L));
+
+            List<Assignment> assignments = new ArrayList<>();
+            for(int hour = 10 + i; hour < 13 + i; hour++) {
+                Assignment assignment = new Assignment();
+                assignment.setHour(hour);
+                assignment.setTraffic(group(0), 0.25F);
+                assignment.setTraffic(group(63), 0.001F * hour);
+                assignment.setTraffic(group(64 + i), 0.1234567F);
+                assignments.add(assignment);
+            }
+            individual.getScheduledExperiments().put(regression, new Schedule(10 + i, assignments));
+
+            Assignment gradualAssignment = new Assignment();
+            gradualAssignment.setHour(5);
+            gradualAssignment.setTraffic(group(69), 1.0F);
+            individual.getScheduledExperiments().put(gradual, new Schedule(5, new ArrayList<>(Collections.singletonList(gradualAssignment))));
+
+            individual.getScheduledExperiments().put(unscheduled, null);
+            population.add(individual);
+        }
+        return population;
+    }
+
+    private static void assertSamePopulation(List<Individual> expected, List<Individual> actual) {
+        assertEquals(expected.size(), actual.size());
+        for(int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getScheduledExperiments(), actual.get(i).getScheduledExperiments());
+        }
+    }
+
+    @Test
+    public void convertBetweenJsonAndBinary() throws IOException {
+        List<Individual> population = createPopulation();
+        App.savePopulationAsJson(population, JSON);
+
+        App.convert(JSON, BIN);
+        assertTrue(BinaryFormat.isBinary(BIN));
+        assertEquals(BinaryFormat.Kind.POPULATION, BinaryFormat.detectKind(BIN));
+        assertSamePopulation(population, BinaryFormat.readPopulation(BIN));
+
+        App.convert(BIN, JSON_AGAIN);
+        assertFalse(BinaryFormat.isBinary(JSON_AGAIN));
+        assertArrayEquals(Files.readAllBytes(Paths.get(JSON)), Files.readAllBytes(Paths.get(JSON_AGAIN)));
+    }
+
+    @Test
+    public void rejectTruncatedFile() throws IOException {
+        BinaryFormat.writePopulation(createPopulation(), BIN);
+        byte[] bytes = Files.readAllBytes(Paths.get(BIN));
+
+        for(int length = 0; length < bytes.length; length++) {
+            Files.write(Paths.get(TRUNCATED), Arrays.copyOf(bytes, length));
+            try {
+                BinaryFormat.readPopulation(TRUNCATED);
+                fail("Expected an error for " + length + " of " + bytes.length + " bytes");
+            } catch (IOException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void rejectOtherContent() throws IOException {
+        BinaryFormat.writeIndividual(createPopulation().get(0), BIN);
+
+        try {
+            BinaryFormat.readPopulation(BIN);
+            fail("Expected an error for a schedule read as population");
+        } catch (IOException e) {
+            assertEquals(BIN + " contains individual instead of population", e.getMessage());
+        }
+    }
+
+    @Test
+    public void writeAndReadCheckpoint() throws IOException {
+        List<Individual> population = createPopulation();
+        List<Experiment> experiments = new ArrayList<>(population.get(0).getScheduledExperiments().keySet());
+        String[] arguments = {"-e", "experiments.json", "-SA", "1000"};
+
+        Checkpoint checkpoint = Checkpoint.ofIteration(arguments, 7L, 300, 1234L, 5L, 600L, experiments,
+                population.get(0), population.get(1), 0.25, -99L, Arrays.asList(0.5, 0.125));
+        BinaryFormat.writeCheckpoint(checkpoint, BIN);
+
+        Checkpoint header = BinaryFormat.readCheckpointHeader(BIN);
+        assertEquals(Arrays.asList(arguments), Arrays.asList(header.getArguments()));
+        assertEquals(7L, header.getSeed());
+
+        Checkpoint read = BinaryFormat.readCheckpoint(BIN);
+        assertEquals(300, read.getStep());
+        assertEquals(1234L, read.getStatsOffset());
+        assertEquals(5L, read.getCrossoverCount());
+        assertEquals(600L, read.getMutationCount());
+        assertEquals(experiments, read.getExperiments());
+        assertNull(read.getPopulation());
+        assertSamePopulation(population.subList(0, 2), Arrays.asList(read.getCurrent(), read.getBest()));
+        assertEquals(0.25, read.getTemperature(), 0.0);
+        assertEquals(-99L, read.getRandomState());
+        assertEquals(Arrays.asList(0.5, 0.125), read.getIncreases());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for(String path : Arrays.asList(JSON, BIN, JSON_AGAIN, TRUNCATED))
+            new File(path).delete();
+    }
+}
@@ -0,0 +1,130 @@
+package fenrir.genetic;
+
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CapacityLedgerTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+
+    private TrafficProfile trafficProfile;
+    private Experiment first;
+    private Experiment second;
+    private Experiment other;
+
+    @Before
+    public void setUp() {
+        trafficProfile = new TrafficProfile(Arrays.asList("a", "b"), 1000);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+
+        first = new Experiment(1, ExperimentType.REGRESSION, "service1", 3, 100L, 1, null);
+        second = new Experiment(2, ExperimentType.REGRESSION, "service1", 3, 100L, 1, null);
+        other = new Experiment(3, ExperimentType.REGRESSION, "service2", 3, 100L, 1, null);
+    }
+
+    private static Schedule createSchedule(int startHour, int numHours, String userGroup, float share) {
+        List<Assignment> assignments = new ArrayList<>();
+        for(int hour = startHour; hour < startHour + numHours; hour++) {
+            Assignment assignment = new Assignment();
+            assignment.setHour(hour);
+            assignment.setTraffic(userGroup, share);
+            assignments.add(assignment);
+        }
+        return new Schedule(startHour, assignments);
+    }
+
+    @Test
+    public void addAndRemoveSchedules() {
+        CapacityLedger ledger = new CapacityLedger(trafficProfile);
+        Schedule late = createSchedule(500, 3, "a", 0.5F);
+        Schedule early = createSchedule(100, 2, "a", 0.25F);
+
+        ledger.add(first, late);
+        ledger.add(second, early);
+        ledger.add(second, createSchedule(501, 1, "b", 0.75F));
+        assertEquals(0.5, ledger.getOccupancy("service1", 502, "a"), 0.0);
+        assertEquals(0.25, ledger.getOccupancy("service1", 101, "a"), 0.0);
+        assertEquals(0.75, ledger.getOccupancy("service1", 501, "b"), 0.0);
+        assertEquals(0.0, ledger.getOccupancy("service1", 300, "a"), 0.0);
+        assertEquals(0.0, ledger.getOccupancy("service1", 999, "a"), 0.0);
+        assertEquals(0.0, ledger.getOccupancy("service2", 500, "a"), 0.0);
+
+        ledger.remove(first, late);
+        assertEquals(0.0, ledger.getOccupancy("service1", 502, "a"), 0.0);
+        assertEquals(0.25, ledger.getOccupancy("service1", 100, "a"), 0.0);
+    }
+
+    @Test
+    public void checkChangedHours() {
+        CapacityLedger ledger = new CapacityLedger(trafficProfile);
+        Schedule firstSchedule = createSchedule(10, 3, "a", 0.6F);
+        Schedule secondSchedule = createSchedule(12, 3, "a", 0.4F);
+        ledger.add(first, firstSchedule);
+        ledger.add(second, secondSchedule);
+        ledger.add(other, createSchedule(12, 1, "a", 0.9F));
+
+        // 0.6F + 0.4F exceed 1.0 in double, which is within the tolerance
+        assertTrue(ledger.isWithinCapacity());
+        assertTrue(ledger.isWithinCapacity(second, secondSchedule));
+
+        Schedule exceeding = createSchedule(14, 1, "a", 0.7F);
+        ledger.add(first, exceeding);
+        assertFalse(ledger.isWithinCapacity(first, exceeding));
+        assertTrue(ledger.isWithinCapacity(first, firstSchedule));
+        assertFalse(ledger.isWithinCapacity());
+
+        // the exceeding hour stays marked as changed until the change is reverted
+        assertFalse(ledger.isWithinCapacity());
+        ledger.remove(first, exceeding);
+        assertTrue(ledger.isWithinCapacity());
+    }
+
+    @Test
+    public void growRangeInBothDirections() {
+        CapacityLedger ledger = new CapacityLedger(trafficProfile);
+        ledger.add(first, createSchedule(400, 2, "b", 0.6F));
+        assertTrue(ledger.isWithinCapacity());
+
+        // hours before and after the range used so far, changed ones before the range is moved
+        ledger.add(second, createSchedule(401, 1, "b", 0.6F));
+        ledger.add(second, createSchedule(3, 1, "b", 0.1F));
+        ledger.add(second, createSchedule(990, 10, "a", 0.2F));
+
+        assertEquals(0.6, ledger.getOccupancy("service1", 400, "b"), 1e-6);
+        assertEquals(0.1, ledger.getOccupancy("service1", 3, "b"), 1e-6);
+        assertEquals(0.2, ledger.getOccupancy("service1", 999, "a"), 1e-6);
+        assertFalse(ledger.isWithinCapacity());
+    }
+
+    @Test
+    public void copyIndependently() {
+        CapacityLedger ledger = new CapacityLedger(trafficProfile);
+        Schedule schedule = createSchedule(20, 2, "a", 0.6F);
+        ledger.add(first, schedule);
+
+        CapacityLedger copy = new CapacityLedger(ledger);
+        copy.add(second, schedule);
+        assertFalse(copy.isWithinCapacity());
+
+        assertEquals(0.6, ledger.getOccupancy("service1", 20, "a"), 1e-6);
+        assertTrue(ledger.isWithinCapacity());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectUnknownUserGroup() {
+        new CapacityLedger(trafficProfile).getOccupancy("service1", 0, "c");
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+    }
+}
@@ -0,0 +1,102 @@
+package fenrir.genetic;
+
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MoveTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+
+    private TrafficProfile trafficProfile;
+    private PopulationProperties props;
+    private Experiment first;
+    private Experiment second;
+    private Individual individual;
+
+    @Before
+    public void setUp() {
+        int[] traffic = new int[50];
+        Arrays.fill(traffic, 1000);
+        trafficProfile = new TrafficProfile(Collections.singletonList("a"), 50, traffic);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+
+        Map<Integer, Integer> minDurations = new HashMap<>();
+        minDurations.put(1, 2);
+        minDurations.put(2, 2);
+        props = new PopulationProperties(trafficProfile, minDurations, 0, 2);
+
+        first = new Experiment(1, ExperimentType.REGRESSION, "service1", 2, 100L, 1, null);
+        second = new Experiment(2, ExperimentType.REGRESSION, "service1", 2, 100L, 1, null);
+
+        individual = new Individual(new UUID(1L, 1L));
+        individual.putSchedule(first, createSchedule(0, 2, 0.5F));
+        individual.putSchedule(second, createSchedule(0, 2, 0.5F));
+    }
+
+    private static Schedule createSchedule(int startSlot, int duration, float share) {
+        List<Assignment> assignments = new ArrayList<>();
+        for(int hour = startSlot; hour < startSlot + duration; hour++) {
+            Assignment assignment = new Assignment();
+            assignment.setHour(hour);
+            assignment.setTraffic("a", share);
+            assignments.add(assignment);
+        }
+        return new Schedule(startSlot, assignments);
+    }
+
+    @Test
+    public void applyAndUndo() {
+        assertTrue(individual.isValid(trafficProfile));
+        Schedule before = individual.getScheduledExperiments().get(first);
+        float startScore = individual.getFitness(props).getStartScore();
+
+        // the ledger sees the moved schedule, which overlaps the schedule of the other experiment by more than 100%
+        Move move = new Move(individual, first, createSchedule(1, 3, 0.6F));
+        move.apply();
+        assertSame(move.getAfter(), individual.getScheduledExperiments().get(first));
+        assertFalse(individual.isValidExperiment(first, trafficProfile));
+        assertFalse(individual.consumeNotMoreThan100Percent(trafficProfile));
+        assertEquals((1.0F + 0.5F) / 2, individual.getFitness(props).getStartScore(), 1e-6F);
+
+        move.undo();
+        assertSame(before, individual.getScheduledExperiments().get(first));
+        assertTrue(individual.isValidExperiment(first, trafficProfile));
+        assertTrue(individual.consumeNotMoreThan100Percent(trafficProfile));
+        assertEquals(startScore, individual.getFitness(props).getStartScore(), 0.0F);
+    }
+
+    @Test
+    public void undoMovesInReverseOrder() {
+        assertTrue(individual.isValid(trafficProfile));
+        Map<Experiment, Schedule> original = new HashMap<>(individual.getScheduledExperiments());
+
+        // moves of the same experiment build on each other, as the mutations of a local search step
+        List<Move> moves = new ArrayList<>();
+        for(Schedule after : Arrays.asList(createSchedule(10, 2, 0.5F), createSchedule(20, 4, 0.9F), createSchedule(5, 2, 0.1F))) {
+            Move move = new Move(individual, first, after);
+            move.apply();
+            moves.add(move);
+        }
+        Move other = new Move(individual, second, createSchedule(5, 2, 0.95F));
+        other.apply();
+        moves.add(other);
+        assertFalse(individual.consumeNotMoreThan100Percent(trafficProfile));
+
+        for(int i = moves.size() - 1; i >= 0; i--)
+            moves.get(i).undo();
+
+        assertEquals(original, individual.getScheduledExperiments());
+        assertTrue(individual.isValid(trafficProfile));
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+    }
+}
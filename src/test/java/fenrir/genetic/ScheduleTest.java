@@ -0,0 +1,125 @@
+package fenrir.genetic;
+
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScheduleTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+
+    private TrafficProfile trafficProfile;
+    private PopulationProperties props;
+    private Experiment experiment;
+
+    @Before
+    public void setUp() {
+        // 100 requests of user group a and 1000 of b every hour
+        int[] traffic = new int[2 * 100];
+        for(int hour = 0; hour < 100; hour++) {
+            traffic[2 * hour] = 100;
+            traffic[2 * hour + 1] = 1000;
+        }
+        trafficProfile = new TrafficProfile(Arrays.asList("a", "b"), 100, traffic);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+
+        experiment = new Experiment(1, ExperimentType.REGRESSION, "service1", 2, 100L, 1, Collections.singletonList("b"));
+        props = new PopulationProperties(trafficProfile, Collections.singletonMap(1, 2), 1, 1);
+    }
+
+    private static Schedule createSchedule(int startSlot, int duration) {
+        List<Assignment> assignments = new ArrayList<>();
+        for(int hour = startSlot; hour < startSlot + duration; hour++) {
+            Assignment assignment = new Assignment();
+            assignment.setHour(hour);
+            assignment.setTraffic("a", 0.5F);
+            assignments.add(assignment);
+        }
+        return new Schedule(startSlot, assignments);
+    }
+
+    @Test
+    public void cacheScoresUntilScheduleChanges() {
+        Schedule schedule = createSchedule(3, 4);
+        Fitness fitness = schedule.getFitness(experiment, props);
+        assertEquals(0.5F, fitness.getDurationScore(), 0.0F);
+        assertEquals(0.0F, fitness.getUserGroupScore(), 0.0F);
+        assertEquals(0.25F, fitness.getStartScore(), 0.0F);
+        assertSame(fitness, schedule.getFitness(experiment, props));
+
+        schedule.moveByHours(1, false);
+        assertEquals(0.2F, schedule.getFitness(experiment, props).getStartScore(), 0.0F);
+
+        schedule.shortenByHours(2);
+        assertEquals(1.0F, schedule.getFitness(experiment, props).getDurationScore(), 0.0F);
+
+        // scores of other experiments or population properties are not taken from the cache
+        PopulationProperties other = new PopulationProperties(trafficProfile, Collections.singletonMap(1, 1), 1, 1);
+        assertEquals(0.5F, schedule.getFitness(experiment, other).getDurationScore(), 0.0F);
+    }
+
+    @Test
+    public void invalidateScoresWhenAssignmentChanges() {
+        Schedule schedule = createSchedule(0, 4);
+        assertEquals(0.0F, schedule.getFitness(experiment, props).getUserGroupScore(), 0.0F);
+
+        // the assignments notify the schedule which scored them
+        schedule.getAssignments().get(1).setTraffic("b", 0.1F);
+        assertEquals(0.25F, schedule.getFitness(experiment, props).getUserGroupScore(), 0.0F);
+
+        schedule.getAssignments().get(2).getTrafficAssignment().put("b", 0.1F);
+        assertEquals(0.5F, schedule.getFitness(experiment, props).getUserGroupScore(), 0.0F);
+
+        schedule.getAssignments().get(1).removeGroup(UserGroupRegistry.findId("b"));
+        assertEquals(0.25F, schedule.getFitness(experiment, props).getUserGroupScore(), 0.0F);
+    }
+
+    @Test
+    public void encodeRunsOfSameUserGroups() {
+        Schedule schedule = createSchedule(10, 6);
+        for(int i = 2; i < 5; i++)
+            schedule.getAssignments().get(i).setTraffic("b", 0.1F);
+
+        GroupRuns runs = schedule.getGroupRuns();
+        assertEquals(3, runs.getNumRuns());
+        assertEquals(2, runs.getStart(1));
+        assertEquals(3, runs.getLength(1));
+        assertEquals(2, runs.getMask(1).cardinality());
+        assertEquals(1, runs.getMask(2).cardinality());
+        assertEquals(Arrays.asList("a", "b"), schedule.getUserGroups());
+        assertEquals(Collections.singletonList("a"), schedule.getUserGroupsInRange(10, 11));
+        assertEquals(Arrays.asList("a", "b"), schedule.getUserGroupsInRange(14, 20));
+        assertFalse(schedule.isInterrupted());
+    }
+
+    @Test
+    public void invalidateRunsWhenAssignmentChanges() {
+        Schedule schedule = createSchedule(0, 4);
+        assertEquals(1, schedule.getGroupRuns().getNumRuns());
+
+        schedule.getAssignments().get(3).setTraffic("b", 0.1F);
+        assertEquals(2, schedule.getGroupRuns().getNumRuns());
+        assertEquals(Arrays.asList("a", "b"), schedule.getUserGroups());
+
+        // an hour without traffic interrupts the schedule, as does a gap between hours
+        schedule.getAssignments().get(1).setTraffic("a", 0.0F);
+        assertTrue(schedule.isInterrupted());
+        schedule.getAssignments().get(1).setTraffic("a", 0.5F);
+        assertFalse(schedule.isInterrupted());
+        schedule.getAssignments().get(3).setHour(5);
+        assertTrue(schedule.isInterrupted());
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+    }
+}
@@ -0,0 +1,44 @@
+package fenrir.genetic;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class UserGroupRegistryTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+
+    @Test
+    public void scopeIdsToProfile() {
+        TrafficProfile first = new TrafficProfile(Arrays.asList("a", "b", "c"), 2);
+        TrafficProfile second = new TrafficProfile(Arrays.asList("c", "d"), 2);
+
+        // user groups get the indexes of their columns, regardless of other profiles
+        assertEquals(2, first.getRegistry().find("c"));
+        assertEquals(0, second.getRegistry().find("c"));
+        assertEquals(-1, second.getRegistry().find("a"));
+        assertEquals(1, second.getGroupIndex("d"));
+
+        UserGroupRegistry.activate(second.getRegistry());
+        assertEquals(1, UserGroupRegistry.findId("d"));
+        assertEquals(-1, UserGroupRegistry.findId("b"));
+
+        // other names follow the user groups of the profile, which do not include them
+        int other = UserGroupRegistry.getId("b");
+        assertEquals(2, other);
+        assertEquals(-1, second.getGroupIndexById(other));
+        assertEquals(3, first.getRegistry().count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectDuplicateUserGroup() {
+        new TrafficProfile(Arrays.asList("a", "b", "a"), 1);
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+    }
+}
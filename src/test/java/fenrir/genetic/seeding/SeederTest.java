@@ -0,0 +1,93 @@
+package fenrir.genetic.seeding;
+
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import fenrir.genetic.Individual;
+import fenrir.genetic.Schedule;
+import fenrir.genetic.TrafficProfile;
+import fenrir.genetic.UserGroupRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SeederTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+
+    private TrafficProfile trafficProfile;
+    private List<String> userGroups;
+
+    // 60% of the traffic of user group a per hour, such that these experiments cannot run at the same time
+    private Experiment important;
+    private Experiment shortest;
+    private Experiment unpreferred;
+
+    @Before
+    public void setUp() {
+        userGroups = Arrays.asList("a", "b");
+        int[] traffic = new int[2 * 200];
+        Arrays.fill(traffic, 1000);
+        trafficProfile = new TrafficProfile(userGroups, 200, traffic);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+
+        List<String> preferred = Collections.singletonList("a");
+        important = new Experiment(1, ExperimentType.REGRESSION, "service1", 4, 4 * 600L, 5, preferred);
+        shortest = new Experiment(2, ExperimentType.REGRESSION, "service1", 2, 2 * 600L, 1, preferred);
+        unpreferred = new Experiment(3, ExperimentType.REGRESSION, "service1", 3, 3 * 100L, 9, null);
+    }
+
+    private Individual seed(SeedingType type, Experiment... experiments) {
+        Individual individual = type.createSeeder().createIndividual(new LinkedHashSet<>(Arrays.asList(experiments)), userGroups, trafficProfile, new Random(1L));
+        assertTrue(individual.isValid(trafficProfile));
+        return individual;
+    }
+
+    private static void assertScheduled(Individual individual, Experiment e, int startSlot) {
+        Schedule s = individual.getScheduledExperiments().get(e);
+        assertEquals(startSlot, s.getStartSlot());
+        assertEquals(e.getMinDuration(), s.getDuration());
+        assertEquals(e.getPreferredUserGroup(), s.getUserGroups());
+    }
+
+    @Test
+    public void scheduleByPriority() {
+        Individual individual = seed(SeedingType.EarliestStart, shortest, important);
+        assertScheduled(individual, important, 0);
+        assertScheduled(individual, shortest, 4);
+    }
+
+    @Test
+    public void scheduleShortestFirst() {
+        Individual individual = seed(SeedingType.MinDurationFirst, important, shortest);
+        assertScheduled(individual, shortest, 0);
+        assertScheduled(individual, important, 2);
+    }
+
+    @Test
+    public void schedulePreferredUserGroupsFirst() {
+        Individual individual = seed(SeedingType.PreferredGroupFirst, unpreferred, shortest, important);
+        assertScheduled(individual, important, 0);
+        assertScheduled(individual, shortest, 4);
+        assertEquals(unpreferred.getMinDuration(), individual.getScheduledExperiments().get(unpreferred).getDuration());
+    }
+
+    @Test
+    public void parseSeedingTypes() {
+        assertEquals(Arrays.asList(SeedingType.MinDurationFirst, SeedingType.EarliestStart), SeedingType.parse(" MinDurationFirst, EarliestStart"));
+        assertTrue(SeedingType.parse("").isEmpty());
+        assertTrue(SeedingType.PreferredGroupFirst.createSeeder() instanceof PreferredGroupFirstSeeder);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectUnknownSeedingType() {
+        SeedingType.parse("EarliestStart,LatestStart");
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+    }
+}
@@ -0,0 +1,131 @@
+package fenrir.genetic.selection;
+
+import fenrir.Constants;
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import fenrir.genetic.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParentSelectionTest {
+    private static final int NUM_PICKS = 100000;
+
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+    private final float[] previousWeights = {Constants.FITNESS_DURATION_WEIGHT, Constants.FITNESS_USERGROUP_WEIGHT, Constants.FITNESS_STARTSLOT_WEIGHT};
+    private final int previousTournamentSize = Constants.TOURNAMENT_SIZE;
+
+    private PopulationProperties props;
+    private List<Individual> population;
+
+    @Before
+    public void setUp() {
+        // the fitness is the start score
+        Constants.FITNESS_DURATION_WEIGHT = 0.0F;
+        Constants.FITNESS_USERGROUP_WEIGHT = 0.0F;
+        Constants.FITNESS_STARTSLOT_WEIGHT = 1.0F;
+        Constants.TOURNAMENT_SIZE = 2;
+
+        TrafficProfile trafficProfile = new TrafficProfile(Collections.singletonList("a"), 100);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+        props = new PopulationProperties(trafficProfile, Collections.singletonMap(1, 2), 0, 1);
+
+        // individuals differ in the start of the only experiment, the later the less fit
+        Experiment experiment = new Experiment(1, ExperimentType.REGRESSION, "service1", 2, 100L, 1, null);
+        population = new ArrayList<>();
+        for(int startSlot : new int[]{3, 0, 9, 1}) {
+            List<Assignment> assignments = new ArrayList<>();
+            for(int hour = startSlot; hour < startSlot + 2; hour++) {
+                Assignment assignment = new Assignment();
+                assignment.setHour(hour);
+                assignment.setTraffic("a", 0.5F);
+                assignments.add(assignment);
+            }
+
+            Individual individual = new Individual(new UUID(startSlot, 0L));
+            individual.getScheduledExperiments().put(experiment, new Schedule(startSlot, assignments));
+            population.add(individual);
+        }
+    }
+
+    private double[] getFitness() {
+        double[] fitness = population.stream().mapToDouble(individual -> individual.getFitness(props).getValue()).toArray();
+        assertArrayEquals(new double[]{0.25, 1.0, 0.1, 0.5}, fitness, 1e-6);
+        return fitness;
+    }
+
+    private double[] getShares(ParentSelection selection, Random rand) {
+        double[] shares = new double[population.size()];
+        for(int i = 0; i < NUM_PICKS; i++)
+            shares[population.indexOf(selection.select(rand))] += 1.0 / NUM_PICKS;
+        return shares;
+    }
+
+    private static void assertShares(double[] weights, double[] shares) {
+        double total = Arrays.stream(weights).sum();
+        for(int i = 0; i < weights.length; i++)
+            assertEquals(weights[i] / total, shares[i], 0.01);
+    }
+
+    @Test
+    public void selectProportionalToFitness() {
+        double[] shares = getShares(new RouletteWheelSelection(population, props), new Random(1L));
+        assertShares(getFitness(), shares);
+    }
+
+    @Test
+    public void selectProportionalToRank() {
+        double[] shares = getShares(new RankSelection(population, props), new Random(2L));
+        assertShares(new double[]{2, 4, 1, 3}, shares);
+    }
+
+    @Test
+    public void selectFromEvenlySpacedPointers() {
+        double[] fitness = getFitness();
+        double total = Arrays.stream(fitness).sum();
+        Random rand = new Random(3L);
+
+        for(int run = 0; run < 20; run++) {
+            double[] shares = getShares(new StochasticUniversalSelection(population, props, rand), rand);
+
+            // every individual is in the mating pool as often as its expected number of copies, rounded up or down
+            for(int i = 0; i < fitness.length; i++) {
+                double expected = population.size() * fitness[i] / total;
+                double copies = Math.round(shares[i] * population.size());
+                assertTrue(copies == Math.floor(expected) || copies == Math.ceil(expected));
+            }
+        }
+    }
+
+    @Test
+    public void selectFittestOfTournament() {
+        double[] shares = getShares(new TournamentSelection(population, props, 1), new Random(4L));
+        assertShares(new double[]{1, 1, 1, 1}, shares);
+
+        // a tournament of size 2 loses only if both picks are the worst one, i.e., it wins with 1 - (3 / 4)^2
+        shares = getShares(new TournamentSelection(population, props, 2), new Random(5L));
+        assertShares(new double[]{3, 7, 1, 5}, shares);
+    }
+
+    @Test
+    public void createSelectionByType() {
+        Random rand = new Random(6L);
+        assertTrue(SelectionType.Roulette.createSelection(population, props, rand) instanceof RouletteWheelSelection);
+        assertTrue(SelectionType.Rank.createSelection(population, props, rand) instanceof RankSelection);
+        assertTrue(SelectionType.StochasticUniversalSampling.createSelection(population, props, rand) instanceof StochasticUniversalSelection);
+        assertTrue(SelectionType.Tournament.createSelection(population, props, rand) instanceof TournamentSelection);
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+        Constants.FITNESS_DURATION_WEIGHT = previousWeights[0];
+        Constants.FITNESS_USERGROUP_WEIGHT = previousWeights[1];
+        Constants.FITNESS_STARTSLOT_WEIGHT = previousWeights[2];
+        Constants.TOURNAMENT_SIZE = previousTournamentSize;
+    }
+}
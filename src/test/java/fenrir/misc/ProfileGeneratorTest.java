@@ -1,17 +1,21 @@
 package fenrir.misc;
 
+import fenrir.genetic.TrafficProfile;
 import org.junit.After;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.Assert.*;
 
 public class ProfileGeneratorTest {
+    private static final String MALFORMED_CSV = "malformed_test.csv";
 
     @Test
     public void readFromCsv() {
@@ -23,27 +27,101 @@ public class ProfileGeneratorTest {
         List<Float> userGroupDist = Arrays.asList(0.4F, 0.1F, 0.2F, 0.15F, 0.15F);
         float controlGroupSize = 0.1F;
 
-        HashMap<Integer, HashMap<String, Integer>> trafficProfile = p.createTrafficProfile(reqPerHour, userGroups.size(), userGroups, userGroupDist, controlGroupSize);
+        TrafficProfile trafficProfile = p.createTrafficProfile(reqPerHour, userGroups.size(), userGroups, userGroupDist, controlGroupSize);
 
         p.saveAsCsv(trafficProfile, "gitlab_test.csv");
-        HashMap<Integer, HashMap<String, Integer>> trafficProfile2 = ProfileGenerator.readFromCsv("gitlab_test.csv");
+        TrafficProfile trafficProfile2 = ProfileGenerator.readFromCsv("gitlab_test.csv");
         assertEquals(trafficProfile.size(), trafficProfile2.size());
 
-        for(Map.Entry<Integer, HashMap<String, Integer>> entry : trafficProfile.entrySet()) {
-            assertEquals(trafficProfile2.containsKey(entry.getKey()), true);
+        for(int hour = 0; hour < trafficProfile.size(); hour++) {
+            assertEquals(trafficProfile2.containsHour(hour), true);
 
-            for(Map.Entry<String, Integer> traffic : entry.getValue().entrySet()) {
-                assertEquals(trafficProfile2.get(entry.getKey()).containsKey(traffic.getKey()), true);
-                assertEquals(trafficProfile2.get(entry.getKey()).get(traffic.getKey()), traffic.getValue());
+            for(String userGroup : trafficProfile.getUserGroups()) {
+                assertEquals(trafficProfile2.getGroupIndex(userGroup) >= 0, true);
+                assertEquals(trafficProfile2.getTraffic(hour, userGroup), trafficProfile.getTraffic(hour, userGroup));
             }
         }
 
     }
 
+    @Test
+    public void shiftProfile() {
+        TrafficProfile trafficProfile = new TrafficProfile(Arrays.asList("group1", "group2"), 4);
+        for(int hour = 0; hour < 4; hour++) {
+            trafficProfile.setTraffic(hour, 0, 100 + hour);
+            trafficProfile.setTraffic(hour, 1, 200 + hour);
+        }
+
+        TrafficProfile shifted = trafficProfile.shift(1);
+        assertEquals(3, shifted.size());
+        assertEquals(101, shifted.getTraffic(0, "group1"));
+        assertEquals(203, shifted.getTraffic(2, "group2"));
+        assertEquals(51L, shifted.getTrafficAt(0, "group1", 0.5F));
+        assertFalse(shifted.containsHour(3));
+    }
+
+    @Test
+    public void readCsvWithCrLf() throws IOException {
+        writeCsv("hour,group1,group2\r\n0,1,2\r\n\r\n2,5,6\r\n");
+
+        TrafficProfile trafficProfile = ProfileGenerator.parseCsv(MALFORMED_CSV);
+        assertEquals(Arrays.asList("group1", "group2"), trafficProfile.getUserGroups());
+        assertEquals(3, trafficProfile.size());
+        assertEquals(2, trafficProfile.getTraffic(0, "group2"));
+        assertEquals(0, trafficProfile.getTraffic(1, "group1"));
+        assertEquals(5, trafficProfile.getTraffic(2, "group1"));
+        assertEquals(6, trafficProfile.getTraffic(2, "group2"));
+
+        writeCsv("hour,group1,group2\r\n0,1,2\r\n1,x,2\r\n");
+        assertMalformed("line 3, column 2", "invalid character 'x'");
+    }
+
+    @Test
+    public void rejectShortRow() throws IOException {
+        writeCsv("hour,group1,group2\n0,1,2\n1,3\n");
+        assertMalformed("line 3, column 2", "expected 2 values after the hour but found 1");
+        assertNull(ProfileGenerator.readFromCsv(MALFORMED_CSV));
+    }
+
+    @Test
+    public void rejectLongRow() throws IOException {
+        writeCsv("hour,group1,group2\n0,1,2,3\n");
+        assertMalformed("line 2, column 3", "expected 2 values after the hour but found more");
+    }
+
+    @Test
+    public void rejectNegativeValue() throws IOException {
+        writeCsv("hour,group1,group2\n0,1,-2\n");
+        assertMalformed("line 2, column 3", "invalid character '-'");
+    }
+
+    @Test
+    public void rejectOverflow() throws IOException {
+        writeCsv("hour,group1,group2\n0,2147483647,2147483648\n");
+        assertMalformed("line 2, column 3", "value exceeds 2147483647");
+
+        writeCsv("hour,group1,group2\n0,2147483647,0\n");
+        assertEquals(Integer.MAX_VALUE, ProfileGenerator.parseCsv(MALFORMED_CSV).getTraffic(0, "group1"));
+    }
+
+    private static void writeCsv(String content) throws IOException {
+        Files.write(Paths.get(MALFORMED_CSV), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertMalformed(String position, String message) {
+        try {
+            ProfileGenerator.parseCsv(MALFORMED_CSV);
+            fail("Expected an error at " + position);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith(MALFORMED_CSV + ", " + position + ":"));
+            assertTrue(e.getMessage(), e.getMessage().contains(message));
+        }
+    }
+
     @After
     public void tearDown() throws Exception {
         File f = new File("gitlab_test.csv");
         f.delete();
-
+        new File(MALFORMED_CSV).delete();
     }
 }
\ No newline at end of file
@@ -0,0 +1,115 @@
+package fenrir.misc;
+
+import fenrir.genetic.TrafficProfile;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProfileStoreTest {
+    private static final String STORE = "store_test.prof";
+
+    // offsets of the version and the number of user groups in the header
+    private static final int VERSION_OFFSET = 4;
+    private static final int NUM_GROUPS_OFFSET = 16;
+
+    private static TrafficProfile createProfile() {
+        int[] traffic = new int[5 * 3];
+        for(int i = 0; i < traffic.length; i++)
+            traffic[i] = 1000 * i + 7;
+        return new TrafficProfile(Arrays.asList("group1", "group2", "group3"), 5, traffic, 60);
+    }
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        TrafficProfile trafficProfile = createProfile();
+        ProfileStore.write(trafficProfile, STORE);
+        assertTrue(ProfileStore.isProfileStore(STORE));
+
+        TrafficProfile mapped = ProfileStore.open(STORE);
+        assertTrue(mapped.isMapped());
+        assertEquals(trafficProfile.getUserGroups(), mapped.getUserGroups());
+        assertEquals(trafficProfile.size(), mapped.size());
+        assertEquals(60, mapped.getSlotSeconds());
+
+        for(int hour = 0; hour < trafficProfile.size(); hour++) {
+            for(String userGroup : trafficProfile.getUserGroups())
+                assertEquals(trafficProfile.getTraffic(hour, userGroup), mapped.getTraffic(hour, userGroup));
+        }
+
+        try {
+            mapped.setTraffic(0, 0, 1);
+            fail("Expected mapped profiles to be read-only");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void recognizeProfileStores() throws IOException {
+        assertFalse(ProfileStore.isProfileStore(null));
+        assertFalse(ProfileStore.isProfileStore(STORE));
+
+        Files.write(Paths.get(STORE), "hour,group1,group2\n0,1,2\n1,3,4\n".getBytes(StandardCharsets.UTF_8));
+        assertFalse(ProfileStore.isProfileStore(STORE));
+        assertOpenFails(STORE + " is no traffic profile store");
+    }
+
+    @Test
+    public void rejectOtherVersion() throws IOException {
+        ProfileStore.write(createProfile(), STORE);
+        try (RandomAccessFile file = new RandomAccessFile(STORE, "rw")) {
+            file.seek(VERSION_OFFSET);
+            file.write(2);
+        }
+
+        assertOpenFails(STORE + " has version 2 of the profile store format, expected 1");
+    }
+
+    @Test
+    public void rejectTruncatedStore() throws IOException {
+        ProfileStore.write(createProfile(), STORE);
+        try (RandomAccessFile file = new RandomAccessFile(STORE, "rw")) {
+            file.setLength(file.length() - 4);
+        }
+        assertOpenFails(STORE + " is truncated or corrupt");
+
+        try (RandomAccessFile file = new RandomAccessFile(STORE, "rw")) {
+            file.setLength(10);
+        }
+        assertOpenFails(STORE + " is truncated or corrupt");
+    }
+
+    @Test
+    public void rejectCorruptHeader() throws IOException {
+        ProfileStore.write(createProfile(), STORE);
+        try (RandomAccessFile file = new RandomAccessFile(STORE, "rw")) {
+            file.seek(NUM_GROUPS_OFFSET);
+            file.write(4);
+        }
+
+        assertOpenFails(STORE + " is truncated or corrupt");
+    }
+
+    private static void assertOpenFails(String message) {
+        try {
+            ProfileStore.open(STORE);
+            fail("Expected " + message);
+        } catch (IOException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        new File(STORE).delete();
+    }
+}
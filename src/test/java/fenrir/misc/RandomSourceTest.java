@@ -0,0 +1,81 @@
+package fenrir.misc;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+public class RandomSourceTest {
+    private final long previousSeed = RandomSource.getSeed();
+
+    private static long[] draw(Random rand, int count) {
+        long[] values = new long[count];
+        for(int i = 0; i < count; i++)
+            values[i] = rand.nextLong();
+        return values;
+    }
+
+    @Test
+    public void reproduceTasksForSeed() {
+        RandomSource.setSeed(42L);
+        long[] expected = draw(RandomSource.forTask("evolve", 3, 7), 100);
+        assertArrayEquals(expected, draw(RandomSource.forTask("evolve", 3, 7), 100));
+
+        // other tasks, task instances, or master seeds get other sequences
+        assertFalse(expected[0] == RandomSource.forTask("evolve", 3, 8).nextLong());
+        assertFalse(expected[0] == RandomSource.forTask("evolve", 7, 3).nextLong());
+        assertFalse(expected[0] == RandomSource.forTask("evolve", 3).nextLong());
+        assertFalse(expected[0] == RandomSource.forTask("mutate", 3, 7).nextLong());
+
+        RandomSource.setSeed(43L);
+        assertFalse(expected[0] == RandomSource.forTask("evolve", 3, 7).nextLong());
+    }
+
+    @Test
+    public void matchSplittableRandom() {
+        Random rand = RandomSource.fromState(1234L);
+        SplittableRandom expected = new SplittableRandom(1234L);
+
+        for(int i = 0; i < 1000; i++) {
+            assertEquals(expected.nextLong(), rand.nextLong());
+            assertEquals(expected.nextInt(), rand.nextInt());
+            assertEquals(expected.nextInt(7), rand.nextInt(7));
+            assertEquals(expected.nextInt(64), rand.nextInt(64));
+            assertEquals(expected.nextDouble(), rand.nextDouble(), 0.0);
+            assertEquals(expected.nextBoolean(), rand.nextBoolean());
+        }
+    }
+
+    @Test
+    public void continueFromState() {
+        RandomSource.setSeed(7L);
+        Random rand = RandomSource.forTask("SA");
+        draw(rand, 10);
+
+        Random resumed = RandomSource.fromState(RandomSource.getState(rand));
+        assertArrayEquals(draw(rand, 100), draw(resumed, 100));
+    }
+
+    @Test
+    public void createVersion4Uuids() {
+        UUID uuid = RandomSource.randomUUID(RandomSource.fromState(5L));
+        assertEquals(4, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertEquals(uuid, RandomSource.randomUUID(RandomSource.fromState(5L)));
+        assertFalse(uuid.equals(RandomSource.randomUUID(RandomSource.fromState(6L))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectStateOfOtherGenerators() {
+        RandomSource.getState(new Random(1L));
+    }
+
+    @After
+    public void tearDown() {
+        RandomSource.setSeed(previousSeed);
+    }
+}
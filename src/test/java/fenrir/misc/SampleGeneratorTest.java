@@ -0,0 +1,112 @@
+package fenrir.misc;
+
+import fenrir.Constants;
+import fenrir.Experiment;
+import fenrir.ExperimentType;
+import fenrir.genetic.*;
+import fenrir.genetic.seeding.SeedingType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SampleGeneratorTest {
+    private final UserGroupRegistry previous = UserGroupRegistry.getActive();
+    private final long previousSeed = RandomSource.getSeed();
+    private final int previousMaxAttempts = Constants.SAMPLING_MAX_ATTEMPTS;
+    private final String previousSeedingTypes = Constants.SEEDING_TYPES;
+    private final float previousSeedingShare = Constants.SEEDING_SHARE;
+
+    private TrafficProfile trafficProfile;
+    private List<String> userGroups;
+    private Experiment experiment;
+
+    @Before
+    public void setUp() {
+        Constants.SAMPLING_MAX_ATTEMPTS = 5;
+        Constants.SEEDING_TYPES = "";
+        Constants.SEEDING_SHARE = 0.0F;
+
+        userGroups = Arrays.asList("a", "b");
+        int[] traffic = new int[2 * 200];
+        Arrays.fill(traffic, 1000);
+        trafficProfile = new TrafficProfile(userGroups, 200, traffic);
+        UserGroupRegistry.activate(trafficProfile.getRegistry());
+
+        // 1800 requests, i.e., more than 5% of the traffic of a user group per hour, as sampled schedules last 14 hours at most
+        experiment = new Experiment(1, ExperimentType.REGRESSION, "service1", 3, 3 * 600L, 1, null);
+    }
+
+    // schedules an experiment consuming 95% of both user groups from hour 0 to the given hour (exclusive)
+    private Individual createOccupiedIndividual(int numHours) {
+        List<Assignment> assignments = new ArrayList<>();
+        for(int hour = 0; hour < numHours; hour++) {
+            Assignment assignment = new Assignment();
+            assignment.setHour(hour);
+            assignment.setTraffic("a", 0.95F);
+            assignment.setTraffic("b", 0.95F);
+            assignments.add(assignment);
+        }
+
+        Individual individual = new Individual(new UUID(0L, 0L));
+        Experiment occupying = new Experiment(2, ExperimentType.REGRESSION, "service1", numHours, 100L, 1, null);
+        individual.putSchedule(occupying, new Schedule(0, assignments));
+        return individual;
+    }
+
+    @Test
+    public void placeExperimentAfterLastUsedHour() {
+        // random schedules start within the first two days, where the traffic is consumed already
+        Individual individual = createOccupiedIndividual(150);
+        SampleGenerator.placeExperiment(individual, experiment, userGroups, trafficProfile, 1, new Random(1L));
+
+        Schedule s = individual.getScheduledExperiments().get(experiment);
+        assertEquals(150, s.getStartSlot());
+        assertEquals(experiment.getMinDuration(), s.getDuration());
+        assertTrue(individual.isValidExperiment(experiment, trafficProfile));
+        assertTrue(individual.consumeNotMoreThan100Percent(trafficProfile));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectExperimentWithoutRoom() {
+        SampleGenerator.placeExperiment(createOccupiedIndividual(200), experiment, userGroups, trafficProfile, 1, new Random(1L));
+    }
+
+    @Test
+    public void createPopulationReproducibly() {
+        Constants.SAMPLING_MAX_ATTEMPTS = 100;
+        Constants.SEEDING_TYPES = "EarliestStart,MinDurationFirst";
+        Constants.SEEDING_SHARE = 0.5F;
+        RandomSource.setSeed(11L);
+
+        Set<Experiment> experiments = new LinkedHashSet<>(Arrays.asList(experiment,
+                new Experiment(2, ExperimentType.REGRESSION, "service1", 5, 5 * 300L, 2, Collections.singletonList("b")),
+                new Experiment(3, ExperimentType.BUSINESS, "service2", 2, 2 * 900L, 3, null)));
+
+        List<Individual> population = SampleGenerator.createPopulation(8, experiments, userGroups, trafficProfile);
+        List<Individual> again = SampleGenerator.createPopulation(8, experiments, userGroups, trafficProfile);
+
+        assertEquals(8, population.size());
+        for(int i = 0; i < population.size(); i++) {
+            assertTrue(population.get(i).isValid(trafficProfile));
+            assertEquals(population.get(i).getId(), again.get(i).getId());
+            assertEquals(population.get(i).getScheduledExperiments(), again.get(i).getScheduledExperiments());
+        }
+
+        // the first half is seeded, the seeders taking turns
+        Individual seeded = SeedingType.MinDurationFirst.createSeeder().createIndividual(experiments, userGroups, trafficProfile, RandomSource.forTask("population", 1));
+        assertEquals(seeded.getScheduledExperiments(), population.get(1).getScheduledExperiments());
+    }
+
+    @After
+    public void tearDown() {
+        UserGroupRegistry.activate(previous);
+        RandomSource.setSeed(previousSeed);
+        Constants.SAMPLING_MAX_ATTEMPTS = previousMaxAttempts;
+        Constants.SEEDING_TYPES = previousSeedingTypes;
+        Constants.SEEDING_SHARE = previousSeedingShare;
+    }
+}